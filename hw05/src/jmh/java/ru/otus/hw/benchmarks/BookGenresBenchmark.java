@@ -0,0 +1,99 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Страница книг с дополнительными жанрами: второй запрос на всю страницу в JdbcBookRepository
+//против запроса жанров на каждую книгу. Запуск: -p books=100000
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookGenresBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final String SELECT_PAGE = """
+            SELECT
+                books.id,
+                books.title,
+                books.author_id,
+                books.genre_id,
+                authors.full_name,
+                genres.name,
+                books.version
+            FROM books
+                LEFT JOIN authors on authors.id = books.author_id
+                LEFT JOIN genres on genres.id = books.genre_id
+            WHERE books.deleted_at IS NULL AND books.id > :after_id
+            ORDER BY books.id
+            LIMIT :limit
+            """;
+
+    private static final String SELECT_BOOK_GENRES = """
+            SELECT genres.id, genres.name
+            FROM book_genres
+                JOIN genres on genres.id = book_genres.genre_id
+            WHERE book_genres.book_id = :book_id
+            ORDER BY genres.id
+            """;
+
+    @State(Scope.Benchmark)
+    public static class ExtraGenresState {
+
+        // Дополнительных жанров у каждой книги
+        @Param({"0", "4", "16"})
+        public int extraGenres;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryState library) {
+            //По одному жанру за запрос: вставка всех строк разом упирается в журнал отмены H2
+            for (int shift = 1; shift <= extraGenres; shift++) {
+                library.jdbcTemplate.update("""
+                        INSERT INTO book_genres (book_id, genre_id)
+                        SELECT id, MOD(id + :shift, :genres) + 1 FROM books
+                        """, Map.of("shift", shift, "genres", library.genres));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Book> batchedPage(LibraryState library, ExtraGenresState extraGenres) {
+        return library.bookRepository.findAllAfter(randomAfterId(library), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Book> perBookPage(LibraryState library, ExtraGenresState extraGenres) {
+        var books = library.jdbcTemplate.query(SELECT_PAGE,
+                Map.of("after_id", randomAfterId(library), "limit", PAGE_SIZE),
+                (rs, rowNum) -> new Book(rs.getLong(1), rs.getString(2), new Author(rs.getLong(3), rs.getString(5)),
+                        new Genre(rs.getLong(4), rs.getString(6)), rs.getLong(7)));
+        for (var book : books) {
+            book.setExtraGenres(library.jdbcTemplate.query(SELECT_BOOK_GENRES, Map.of("book_id", book.getId()),
+                    (rs, rowNum) -> new Genre(rs.getLong(1), rs.getString(2))));
+        }
+        return books;
+    }
+
+    private static long randomAfterId(LibraryState library) {
+        return Math.max(0, library.randomBookId() - PAGE_SIZE);
+    }
+}
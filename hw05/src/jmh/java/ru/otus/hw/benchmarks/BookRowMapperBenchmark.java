@@ -0,0 +1,92 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Сравнение маппинга полного join: прежний маппер по именам колонок против текущего в JdbcBookRepository.
+//Обе стороны выполняют одни и те же запросы, что и findAll: книги без мягко удаленных, с версией,
+//и запрос дополнительных жанров на каждые 1000 книг. Выделение памяти на операцию смотреть профилировщиком: -prof gc
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookRowMapperBenchmark {
+
+    private static final int EXTRA_GENRES_BATCH_SIZE = 1000;
+
+    private static final String SELECT_BOOKS = """
+            SELECT
+                books.id,
+                books.title,
+                books.author_id,
+                books.genre_id,
+                authors.full_name as `authors_full_name`,
+                genres.name as `genres_name`,
+                books.version
+            FROM books
+                LEFT JOIN authors on authors.id = books.author_id
+                LEFT JOIN genres on genres.id = books.genre_id
+            WHERE books.deleted_at IS NULL
+            """;
+
+    private static final String SELECT_EXTRA_GENRES = """
+            SELECT book_genres.book_id, genres.id, genres.name
+            FROM TABLE(id BIGINT = :ids) ids
+                JOIN book_genres on book_genres.book_id = ids.id
+                JOIN genres on genres.id = book_genres.genre_id
+            ORDER BY book_genres.book_id, genres.id
+            """;
+
+    private static final RowMapper<Book> BY_COLUMN_NAME_MAPPER = (rs, rowNum) -> {
+        Author author = rs.getLong("author_id") > 0
+                ? new Author(rs.getLong("author_id"), rs.getString("authors_full_name"))
+                : null;
+        Genre genre = rs.getLong("genre_id") > 0
+                ? new Genre(rs.getLong("genre_id"), rs.getString("genres_name"))
+                : null;
+        return new Book(rs.getLong("id"), rs.getString("title"), author, genre, rs.getLong("version"));
+    };
+
+    @Benchmark
+    public List<Book> byColumnNameFindAll(LibraryState state, BookGenresBenchmark.ExtraGenresState extraGenres) {
+        var books = state.jdbcTemplate.query(SELECT_BOOKS, BY_COLUMN_NAME_MAPPER);
+        for (int from = 0; from < books.size(); from += EXTRA_GENRES_BATCH_SIZE) {
+            var page = books.subList(from, Math.min(from + EXTRA_GENRES_BATCH_SIZE, books.size()));
+            Map<Long, Book> booksById = new HashMap<>();
+            page.forEach(book -> booksById.put(book.getId(), book));
+            var ids = new SqlParameterValue(Types.ARRAY, booksById.keySet().toArray(Long[]::new));
+
+            state.jdbcTemplate.query(SELECT_EXTRA_GENRES, Map.of("ids", ids), rs -> {
+                var book = booksById.get(rs.getLong("book_id"));
+                if (book.getExtraGenres().isEmpty()) {
+                    book.setExtraGenres(new ArrayList<>());
+                }
+                book.getExtraGenres().add(new Genre(rs.getLong("id"), rs.getString("name")));
+            });
+        }
+        return books;
+    }
+
+    @Benchmark
+    public List<Book> dedupByColumnIndexFindAll(LibraryState state, BookGenresBenchmark.ExtraGenresState extraGenres) {
+        return state.bookRepository.findAll();
+    }
+}
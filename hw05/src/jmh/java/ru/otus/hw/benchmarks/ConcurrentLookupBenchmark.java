@@ -0,0 +1,102 @@
+package ru.otus.hw.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+import ru.otus.hw.cache.BookCacheInvalidator;
+import ru.otus.hw.config.CatalogProperties;
+import ru.otus.hw.config.ExecutionMode;
+import ru.otus.hw.config.ExecutionProperties;
+import ru.otus.hw.config.LibraryExecutors;
+import ru.otus.hw.config.OptimisticLockProperties;
+import ru.otus.hw.config.SoftDeleteProperties;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.search.BookSearchIndex;
+import ru.otus.hw.services.AsyncLibraryServiceImpl;
+import ru.otus.hw.services.AuthorServiceImpl;
+import ru.otus.hw.services.BookBatchDeleter;
+import ru.otus.hw.services.BookServiceImpl;
+import ru.otus.hw.services.CatalogVersion;
+import ru.otus.hw.services.GenreServiceImpl;
+import ru.otus.hw.services.OptimisticLockRetry;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+//Одна операция - 10 000 одновременных findById через асинхронный фасад
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConcurrentLookupBenchmark {
+
+    private static final int LOOKUPS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class ExecutionState {
+
+        //VIRTUAL на Java ниже 21 отклоняется в setUp, JMH сообщит об ошибке и продолжит с PLATFORM
+        @Param({"PLATFORM", "VIRTUAL"})
+        public ExecutionMode mode;
+
+        public ExecutorService executor;
+
+        public AsyncLibraryServiceImpl asyncLibraryService;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryState library) {
+            var properties = new ExecutionProperties();
+            properties.setMode(mode);
+            properties.setMaxConcurrentQueries(library.database.getDataSource().getMaximumPoolSize());
+            executor = LibraryExecutors.newExecutor(mode, properties.getPlatformThreads());
+
+            var bookSearchIndex = new BookSearchIndex();
+            var catalogVersion = new CatalogVersion();
+            var bookCacheInvalidator = new BookCacheInvalidator(new NoOpCacheManager());
+            var bookBatchDeleter = new BookBatchDeleter(bookSearchIndex, bookCacheInvalidator, catalogVersion,
+                    new CatalogProperties());
+            var bookService = new BookServiceImpl(library.authorRepository, library.genreRepository,
+                    library.bookRepository, bookSearchIndex, catalogVersion, bookCacheInvalidator,
+                    new OptimisticLockRetry(new OptimisticLockProperties(), new SimpleMeterRegistry()),
+                    new SoftDeleteProperties());
+            asyncLibraryService = new AsyncLibraryServiceImpl(bookService,
+                    new AuthorServiceImpl(library.authorRepository, library.bookRepository, bookSearchIndex,
+                            bookCacheInvalidator, bookBatchDeleter, catalogVersion),
+                    new GenreServiceImpl(library.genreRepository, library.bookRepository, bookSearchIndex,
+                            bookCacheInvalidator, bookBatchDeleter, catalogVersion),
+                    executor, properties);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public List<Optional<Book>> concurrentFindById(LibraryState library, ExecutionState execution) {
+        var futures = LongStream.range(0, LOOKUPS)
+                .mapToObj(i -> execution.asyncLibraryService.findBookById(library.randomBookId()))
+                .toList();
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+    }
+}
@@ -0,0 +1,66 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.otus.hw.models.Book;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JdbcBookRepositoryBenchmark {
+
+    @Benchmark
+    public Optional<Book> findById(LibraryState state) {
+        return state.bookRepository.findById(state.randomBookId());
+    }
+
+    @Benchmark
+    public List<Book> findAll(LibraryState state) {
+        return state.bookRepository.findAll();
+    }
+
+    @Benchmark
+    public Book insert(LibraryState state) {
+        return state.bookRepository.save(state.randomBook(0));
+    }
+
+    //Изменение с чтением текущей версии, как в BookServiceImpl.update без явной версии
+    @Benchmark
+    public Book update(LibraryState state) {
+        var book = state.randomBook(state.randomBookId());
+        book.setVersion(state.bookRepository.findVersionById(book.getId()).orElseThrow());
+        return state.bookRepository.save(book);
+    }
+
+    @Benchmark
+    public void deleteById(LibraryState state, InsertedBook insertedBook) {
+        state.bookRepository.deleteById(insertedBook.id);
+    }
+
+    //Удаляем заранее вставленную книгу, чтобы не уменьшать основной набор данных
+    @State(Scope.Thread)
+    public static class InsertedBook {
+
+        public long id;
+
+        @Setup(Level.Invocation)
+        public void insert(LibraryState state) {
+            id = state.bookRepository.save(state.randomBook(0)).getId();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Genre;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JdbcReferenceRepositoriesBenchmark {
+
+    @Benchmark
+    public Optional<Author> authorFindById(LibraryState state) {
+        return state.authorRepository.findById(state.randomAuthorId());
+    }
+
+    @Benchmark
+    public List<Author> authorFindAll(LibraryState state) {
+        return state.authorRepository.findAll();
+    }
+
+    @Benchmark
+    public Optional<Genre> genreFindById(LibraryState state) {
+        return state.genreRepository.findById(state.randomGenreId());
+    }
+
+    @Benchmark
+    public List<Genre> genreFindAll(LibraryState state) {
+        return state.genreRepository.findAll();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.otus.hw.TestLibraryDatabase;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.JdbcAuthorRepository;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    // Переопределяется из командной строки: -p books=1000
+    @Param({"1000", "100000", "1000000"})
+    public int books;
+
+    @Param({"100"})
+    public int genres;
+
+    public int authors;
+
+    public TestLibraryDatabase database;
+
+    public NamedParameterJdbcTemplate jdbcTemplate;
+
+    public JdbcBookRepository bookRepository;
+
+    public JdbcAuthorRepository authorRepository;
+
+    public JdbcGenreRepository genreRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        authors = Math.max(1, books / 10);
+
+        database = TestLibraryDatabase.create("bench", Runtime.getRuntime().availableProcessors());
+        database.seed(authors, genres, books);
+        jdbcTemplate = database.getJdbcTemplate();
+
+        bookRepository = new JdbcBookRepository(jdbcTemplate, new JdbcBatchProperties());
+        authorRepository = new JdbcAuthorRepository(jdbcTemplate);
+        genreRepository = new JdbcGenreRepository(jdbcTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    public long randomBookId() {
+        return ThreadLocalRandom.current().nextLong(1, books + 1);
+    }
+
+    public long randomAuthorId() {
+        return ThreadLocalRandom.current().nextLong(1, authors + 1);
+    }
+
+    public long randomGenreId() {
+        return ThreadLocalRandom.current().nextLong(1, genres + 1);
+    }
+
+    public Book randomBook(long id) {
+        return new Book(id, "Benchmark_" + id, new Author(randomAuthorId(), null), new Genre(randomGenreId(), null));
+    }
+}
@@ -0,0 +1,62 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.otus.hw.models.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+//N книг: один запрос findAllByIds против N вызовов findById
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MultiIdLookupBenchmark {
+
+    @State(Scope.Thread)
+    public static class Ids {
+
+        @Param({"10", "100", "1000"})
+        public int size;
+
+        public List<Long> ids;
+
+        @Setup(Level.Invocation)
+        public void randomIds(LibraryState state) {
+            ids = LongStream.range(0, size)
+                    .mapToObj(i -> state.randomBookId())
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    public List<Book> findAllByIds(LibraryState state, Ids ids) {
+        return state.bookRepository.findAllByIds(ids.ids);
+    }
+
+    @Benchmark
+    public List<Book> findByIdLoop(LibraryState state, Ids ids) {
+        var books = new ArrayList<Book>(ids.size);
+        ids.ids.forEach(id -> state.bookRepository.findById(id).ifPresent(books::add));
+        return books;
+    }
+
+    @Benchmark
+    public Book findByIdSingle(LibraryState state) {
+        return state.bookRepository.findById(state.randomBookId()).orElseThrow();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.otus.hw.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//Кэш авторов и жанров: @CacheEvict срабатывает при возврате из метода, то есть до коммита внешней
+//транзакции, и параллельное чтение успело бы положить в кэш ещё не измененную или удаленную строку.
+//Поэтому внутри транзакции удаление откладывается до ее завершения, как в BookCacheInvalidator
+public class AfterCompletionEvictCache extends CaffeineCache {
+
+    public AfterCompletionEvictCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    public void evict(Object key) {
+        afterCompletion(() -> super.evict(key));
+    }
+
+    @Override
+    public void clear() {
+        afterCompletion(super::clear);
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
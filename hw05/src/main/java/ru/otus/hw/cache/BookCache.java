@@ -0,0 +1,118 @@
+package ru.otus.hw.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+//Кэш книг поверх Caffeine. Книги изменяемые, поэтому кэш хранит и отдаёт копии: иначе изменение
+//полученной книги (например, setExtraGenres после сохранения) меняло бы запись в кэше.
+//Кроме того, кэш не принимает книгу, прочитанную до удаления из кэша: чтение могло начаться
+//до коммита изменения, и без этой проверки старая строка попала бы в кэш уже после инвалидации
+public class BookCache extends CaffeineCache {
+
+    // Сколько раз из кэша удалялись записи
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Последний промах в потоке: @Cacheable кладёт результат в кэш в том же потоке после промаха
+    private final ThreadLocal<Miss> lastMiss = new ThreadLocal<>();
+
+    public BookCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        var value = super.lookup(key);
+        if (value == null) {
+            lastMiss.set(new Miss(key, evictions.get()));
+        }
+        return copy(value);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return copy(super.get(key, valueLoader));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        var miss = lastMiss.get();
+        lastMiss.remove();
+        if (miss == null || !miss.key().equals(key)) {
+            super.put(key, copy(value));
+            return;
+        }
+        if (evictions.get() != miss.evictions()) {
+            return;
+        }
+        var storeValue = toStoreValue(copy(value));
+        getNativeCache().put(key, storeValue);
+        //Удаление могло пройти между проверкой и записью
+        if (evictions.get() != miss.evictions()) {
+            getNativeCache().asMap().remove(key, storeValue);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        var existing = super.putIfAbsent(key, copy(value));
+        return existing == null ? null : () -> copy(existing.get());
+    }
+
+    //Счётчик растёт до удаления, чтобы чтение, промахнувшееся раньше, уже не смогло положить книгу
+    @Override
+    public void evict(Object key) {
+        evictions.incrementAndGet();
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evictions.incrementAndGet();
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        evictions.incrementAndGet();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        evictions.incrementAndGet();
+        return super.invalidate();
+    }
+
+    public void evictIf(Predicate<Book> predicate) {
+        evictions.incrementAndGet();
+        getNativeCache().asMap().values().removeIf(value -> value instanceof Book book && predicate.test(book));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(T value) {
+        if (!(value instanceof Book book)) {
+            return value;
+        }
+        return (T) new Book(book.getId(), book.getTitle(),
+                copyAuthor(book.getAuthor()), copyGenre(book.getGenre()), book.getVersion(),
+                book.getExtraGenres().stream().map(BookCache::copyGenre).toList());
+    }
+
+    private static Author copyAuthor(Author author) {
+        return author == null ? null : new Author(author.getId(), author.getFullName());
+    }
+
+    private static Genre copyGenre(Genre genre) {
+        return genre == null ? null : new Genre(genre.getId(), genre.getName());
+    }
+
+    private record Miss(Object key, long evictions) {
+    }
+}
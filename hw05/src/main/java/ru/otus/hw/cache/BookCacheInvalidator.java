@@ -0,0 +1,69 @@
+package ru.otus.hw.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.models.Book;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+//Удаляет книги из кэша после завершения транзакции: если удалить раньше, параллельное чтение
+//успеет положить в кэш ещё не измененную строку, и она останется там до истечения TTL.
+//Чтение, начавшееся до коммита, может закончиться уже после удаления - такую книгу не примет BookCache
+@RequiredArgsConstructor
+@Component
+public class BookCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    public void evict(long bookId) {
+        afterCompletion(cache -> cache.evict(bookId));
+    }
+
+    //Книги кэшируются вместе с именем автора и названием жанра, поэтому при их изменении
+    //удаляются все книги, которые на них ссылаются
+    public void evictByAuthorId(long authorId) {
+        evictIf(book -> book.getAuthor() != null && book.getAuthor().getId() == authorId);
+    }
+
+    public void evictByGenreId(long genreId) {
+        evictIf(book -> book.getGenre() != null && book.getGenre().getId() == genreId
+                || book.getExtraGenres().stream().anyMatch(genre -> genre.getId() == genreId));
+    }
+
+    private void evictIf(Predicate<Book> predicate) {
+        afterCompletion(cache -> {
+            if (cache instanceof BookCache bookCache) {
+                bookCache.evictIf(predicate);
+            } else if (cache instanceof CaffeineCache caffeineCache) {
+                caffeineCache.getNativeCache().asMap().values()
+                        .removeIf(value -> value instanceof Book book && predicate.test(book));
+            } else {
+                cache.clear();
+            }
+        });
+    }
+
+    private void afterCompletion(Consumer<Cache> action) {
+        var cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(cache);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(cache);
+            }
+        });
+    }
+}
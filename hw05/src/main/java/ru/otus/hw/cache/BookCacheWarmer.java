@@ -0,0 +1,40 @@
+package ru.otus.hw.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.config.LibraryCacheProperties;
+import ru.otus.hw.repositories.BookRepository;
+
+@Slf4j
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Component
+public class BookCacheWarmer implements ApplicationRunner {
+
+    private final BookRepository bookRepository;
+
+    private final CacheManager cacheManager;
+
+    private final LibraryCacheProperties cacheProperties;
+
+    //Одним запросом загружает первые книги, чтобы первые bbid не шли в базу по одной
+    @Override
+    public void run(ApplicationArguments args) {
+        var cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        if (cache == null || cacheProperties.getWarmUpBooks() <= 0) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        var books = bookRepository.findAllAfter(0, cacheProperties.getWarmUpBooks());
+        books.forEach(book -> cache.put(book.getId(), book));
+        log.info("Book cache warmed up with {} books in {} ms",
+                books.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.otus.hw.changes;
+
+import org.h2.api.Trigger;
+import ru.otus.hw.models.ChangeOperation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Objects;
+
+//Строчный триггер H2 на books: запись в book_changes попадает в ту же транзакцию, что и изменение книги,
+//при любом пути записи (JDBC, пакеты, upsert, R2DBC, каскадное удаление автора или жанра).
+//Строка с deleted_at считается отсутствующей: мягкое удаление пишется как DELETE,
+//а последующая физическая очистка такой строки в журнал не попадает
+public class BookChangesTrigger implements Trigger {
+
+    private static final String INSERT_CHANGE = """
+            INSERT INTO book_changes (book_id, operation, version, changed_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private int idColumn;
+
+    private int versionColumn;
+
+    private int deletedAtColumn;
+
+    //Номера колонок берутся из схемы, чтобы триггер не зависел от порядка и числа колонок books
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        idColumn = -1;
+        versionColumn = -1;
+        deletedAtColumn = -1;
+        try (var columns = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+            while (columns.next()) {
+                var name = columns.getString("COLUMN_NAME");
+                int index = columns.getInt("ORDINAL_POSITION") - 1;
+                if ("ID".equalsIgnoreCase(name)) {
+                    idColumn = index;
+                } else if ("VERSION".equalsIgnoreCase(name)) {
+                    versionColumn = index;
+                } else if ("DELETED_AT".equalsIgnoreCase(name)) {
+                    deletedAtColumn = index;
+                }
+            }
+        }
+        if (idColumn < 0 || versionColumn < 0) {
+            throw new SQLException("Table %s has no id or version column".formatted(tableName));
+        }
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        boolean existed = isPresent(oldRow);
+        boolean exists = isPresent(newRow);
+        if (!existed && !exists) {
+            return;
+        }
+        var row = exists ? newRow : oldRow;
+        var operation = !existed ? ChangeOperation.INSERT
+                : !exists ? ChangeOperation.DELETE
+                : ChangeOperation.UPDATE;
+        try (var statement = conn.prepareStatement(INSERT_CHANGE)) {
+            statement.setLong(1, toLong(row[idColumn]));
+            statement.setString(2, operation.name());
+            statement.setLong(3, toLong(row[versionColumn]));
+            statement.setTimestamp(4, Timestamp.from(Instant.now()));
+            statement.executeUpdate();
+        }
+    }
+
+    //До миграции V3 колонки deleted_at нет, и все строки считаются существующими
+    private boolean isPresent(Object[] row) {
+        return row != null && (deletedAtColumn < 0 || row[deletedAtColumn] == null);
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) Objects.requireNonNull(value)).longValue();
+    }
+}
@@ -1,12 +1,16 @@
 package ru.otus.hw.commands;
 
 import lombok.RequiredArgsConstructor;
+import org.jline.terminal.Terminal;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
 import ru.otus.hw.converters.AuthorConverter;
+import ru.otus.hw.models.Author;
 import ru.otus.hw.services.AuthorService;
 
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.List;
 
 @RequiredArgsConstructor
 @ShellComponent
@@ -16,10 +20,50 @@ public class AuthorCommands {
 
     private final AuthorConverter authorConverter;
 
+    private final Terminal terminal;
+
     @ShellMethod(value = "Find all authors", key = "aa")
     public String findAllAuthors() {
-        return authorService.findAll().stream()
-                .map(authorConverter::authorToString)
-                .collect(Collectors.joining("," + System.lineSeparator()));
+        return authorsToString(authorService.findAll());
+    }
+
+    // aids 1 2 3
+    @ShellMethod(value = "Find authors by ids in one query", key = "aids")
+    public String findAuthorsByIds(@ShellOption(arity = Integer.MAX_VALUE) long[] ids) {
+        return authorsToString(authorService.findAllByIds(Arrays.stream(ids).boxed().toList()));
+    }
+
+    // ains "Лев Толстой"
+    @ShellMethod(value = "Insert author", key = "ains")
+    public String insertAuthor(String fullName) {
+        return authorConverter.authorToString(authorService.insert(fullName));
+    }
+
+    // ainsa "Антон Чехов" "Иван Бунин"
+    @ShellMethod(value = "Insert authors in one batch", key = "ainsa")
+    public String insertAuthors(@ShellOption(arity = Integer.MAX_VALUE) String[] fullNames) {
+        return authorsToString(authorService.insertAll(List.of(fullNames)));
+    }
+
+    // aupd 1 "Лев Николаевич Толстой"
+    @ShellMethod(value = "Update author", key = "aupd")
+    public String updateAuthor(long id, String fullName) {
+        return authorConverter.authorToString(authorService.update(id, fullName));
+    }
+
+    // adel 1
+    @ShellMethod(value = "Delete author and its books in batches", key = "adel")
+    public String deleteAuthor(long id) {
+        long deletedBooks = authorService.deleteById(id, this::printProgress);
+        return "Author %d deleted with %d books".formatted(id, deletedBooks);
+    }
+
+    private void printProgress(long deletedBooks) {
+        terminal.writer().println("... %d books deleted".formatted(deletedBooks));
+        terminal.writer().flush();
+    }
+
+    private String authorsToString(List<Author> authors) {
+        return authorConverter.appendAuthors(new StringBuilder(), authors).toString();
     }
 }
@@ -1,12 +1,16 @@
 package ru.otus.hw.commands;
 
 import lombok.RequiredArgsConstructor;
+import org.jline.terminal.Terminal;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
 import ru.otus.hw.converters.BookConverter;
+import ru.otus.hw.models.Book;
 import ru.otus.hw.services.BookService;
 
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.List;
 
 @SuppressWarnings({"SpellCheckingInspection", "unused"})
 @RequiredArgsConstructor
@@ -17,11 +21,52 @@ public class BookCommands {
 
     private final BookConverter bookConverter;
 
-    @ShellMethod(value = "Find all books", key = "ab")
-    public String findAllBooks() {
-        return bookService.findAll().stream()
-                .map(bookConverter::bookToString)
-                .collect(Collectors.joining("," + System.lineSeparator()));
+    private final Terminal terminal;
+
+    // ab --page 0 --size 1000
+    // ab --count-only
+    @ShellMethod(value = "Find all books (deep pages are slower, use abp to walk the whole catalogue)", key = "ab")
+    public void findAllBooks(@ShellOption(defaultValue = ShellOption.NULL) Integer page,
+                             @ShellOption(defaultValue = "1000") int size,
+                             @ShellOption(value = "--count-only", defaultValue = "false") boolean countOnly) {
+        var writer = terminal.writer();
+        if (countOnly) {
+            writer.println("%d books".formatted(bookService.count()));
+            writer.flush();
+            return;
+        }
+        if (page == null) {
+            try (var books = bookService.streamAll()) {
+                bookConverter.writeBooks(books.iterator(), writer);
+            }
+            return;
+        }
+        if (page < 0 || size < 1) {
+            writer.println("Page must be >= 0 and size must be > 0");
+            writer.flush();
+            return;
+        }
+        long total = bookService.count();
+        long written;
+        try (var books = bookService.streamPage(page, size)) {
+            written = bookConverter.writeBooks(books.iterator(), writer);
+        }
+        long pages = (total + size - 1) / size;
+        writer.println("Page %d of 0..%d: %d of %d books".formatted(page, Math.max(pages - 1, 0), written, total));
+        writer.flush();
+    }
+
+    // abp 0 100
+    @ShellMethod(value = "Find books page after id", key = "abp")
+    public String findBooksPage(@ShellOption(defaultValue = "0") long afterId,
+                                @ShellOption(defaultValue = "100") int limit) {
+        var books = bookService.findPage(afterId, limit);
+        if (books.isEmpty()) {
+            return "No books after id %d".formatted(afterId);
+        }
+        return booksToString(books)
+                + System.lineSeparator()
+                + "Next page: abp %d %d".formatted(books.get(books.size() - 1).getId(), limit);
     }
 
     @ShellMethod(value = "Find book by id", key = "bbid")
@@ -31,6 +76,51 @@ public class BookCommands {
                 .orElse("Book with id %d not found".formatted(id));
     }
 
+    // bba 1 --limit 10
+    @ShellMethod(value = "Find books by author id", key = "bba")
+    public String findBooksByAuthorId(long authorId, @ShellOption(defaultValue = "100") int limit) {
+        return booksToString(bookService.findByAuthorId(authorId, limit));
+    }
+
+    // bbg 1 --limit 10
+    @ShellMethod(value = "Find books by genre id", key = "bbg")
+    public String findBooksByGenreId(long genreId, @ShellOption(defaultValue = "100") int limit) {
+        return booksToString(bookService.findByGenreId(genreId, limit));
+    }
+
+    // bids 1 2 3
+    @ShellMethod(value = "Find books by ids in one query", key = "bids")
+    public String findBooksByIds(@ShellOption(arity = Integer.MAX_VALUE) long[] ids) {
+        return booksToString(bookService.findAllByIds(Arrays.stream(ids).boxed().toList()));
+    }
+
+    // bbt Гарри --limit 10
+    @ShellMethod(value = "Find books by title prefix", key = "bbt")
+    public String findBooksByTitlePrefix(String titlePrefix, @ShellOption(defaultValue = "100") int limit) {
+        return booksToString(bookService.findByTitlePrefix(titlePrefix, limit));
+    }
+
+    // bsearch "гарри поттер" --page 0 --size 20
+    @ShellMethod(value = "Full-text search by book title and author name", key = "bsearch")
+    public String searchBooks(String query,
+                              @ShellOption(defaultValue = "0") int page,
+                              @ShellOption(defaultValue = "20") int size) {
+        if (page < 0 || size < 1) {
+            return "Page must be >= 0 and size must be > 0";
+        }
+        //Индекс поиска держит в куче offset + size результатов, поэтому смещение должно помещаться в int
+        long offset = (long) page * size;
+        if (offset > Integer.MAX_VALUE - 1 - size) {
+            return "Page %d is too deep for size %d".formatted(page, size);
+        }
+        long startedAt = System.nanoTime();
+        var books = bookService.search(query, (int) offset, size);
+        long elapsedMicros = (System.nanoTime() - startedAt) / 1000;
+        return booksToString(books)
+                + System.lineSeparator()
+                + "Found %d books on page %d in %d us".formatted(books.size(), page, elapsedMicros);
+    }
+
     // bins newBook 1 1
     @ShellMethod(value = "Insert book", key = "bins")
     public String insertBook(String title, long authorId, long genreId) {
@@ -38,16 +128,30 @@ public class BookCommands {
         return bookConverter.bookToString(savedBook);
     }
 
-    // bupd 4 editedBook 3 2
-    @ShellMethod(value = "Update book", key = "bupd")
-    public String updateBook(long id, String title, long authorId, long genreId) {
-        var savedBook = bookService.update(id, title, authorId, genreId);
+    // bupd 4 editedBook 3 2 --version 1
+    @ShellMethod(value = "Update book, version is the one shown by bbid (rejected if the book has changed since)",
+            key = "bupd")
+    public String updateBook(long id, String title, long authorId, long genreId, long version) {
+        var savedBook = bookService.update(id, version, title, authorId, genreId);
+        return bookConverter.bookToString(savedBook);
+    }
+
+    // bgen 4 --genres 2 1 3
+    @ShellMethod(value = "Set book genres, the first one becomes the main genre", key = "bgen")
+    public String updateBookGenres(long id,
+                                   @ShellOption(value = "--genres", arity = Integer.MAX_VALUE) long[] genreIds) {
+        var savedBook = bookService.updateGenres(id, Arrays.stream(genreIds).boxed().toList());
         return bookConverter.bookToString(savedBook);
     }
 
     // bdel 4
-    @ShellMethod(value = "Delete book by id", key = "bdel")
+    @ShellMethod(value = "Delete book by id. With library.soft-delete.enabled=true the book is only marked "
+            + "as deleted and removed later by the background purge", key = "bdel")
     public void deleteBook(long id) {
         bookService.deleteById(id);
     }
+
+    private String booksToString(List<Book> books) {
+        return bookConverter.appendBooks(new StringBuilder(), books).toString();
+    }
 }
@@ -0,0 +1,37 @@
+package ru.otus.hw.commands;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+
+@RequiredArgsConstructor
+@ShellComponent
+public class CacheCommands {
+
+    private final CacheManager cacheManager;
+
+    @ShellMethod(value = "Show cache statistics", key = "cstat")
+    public String cacheStatistics() {
+        var out = new StringBuilder();
+        for (var name : cacheManager.getCacheNames().stream().sorted().toList()) {
+            if (!out.isEmpty()) {
+                out.append(',').append(System.lineSeparator());
+            }
+            var cache = (CaffeineCache) cacheManager.getCache(name);
+            appendCache(out, name, cache.getNativeCache().estimatedSize(), cache.getNativeCache().stats());
+        }
+        return out.toString();
+    }
+
+    private static void appendCache(StringBuilder out, String name, long size, CacheStats stats) {
+        out.append("Cache: ").append(name)
+                .append(", size: ").append(size)
+                .append(", hits: ").append(stats.hitCount())
+                .append(", misses: ").append(stats.missCount())
+                .append(", evictions: ").append(stats.evictionCount())
+                .append(", hitRate: ").append("%.2f".formatted(stats.hitRate()));
+    }
+}
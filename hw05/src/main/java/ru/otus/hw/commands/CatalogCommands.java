@@ -0,0 +1,51 @@
+package ru.otus.hw.commands;
+
+import lombok.RequiredArgsConstructor;
+import org.jline.terminal.Terminal;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+import ru.otus.hw.io.CatalogFormat;
+import ru.otus.hw.io.TransferStats;
+import ru.otus.hw.services.CatalogExportService;
+import ru.otus.hw.services.CatalogImportService;
+
+import java.nio.file.Path;
+
+@SuppressWarnings({"SpellCheckingInspection", "unused"})
+@RequiredArgsConstructor
+@ShellComponent
+public class CatalogCommands {
+
+    private final CatalogImportService catalogImportService;
+
+    private final CatalogExportService catalogExportService;
+
+    private final Terminal terminal;
+
+    // bimp books.csv
+    // bimp books.ndjson --format NDJSON
+    @ShellMethod(value = "Import books from CSV (title,author,genre) or NDJSON file", key = "bimp")
+    public String importBooks(String file, @ShellOption(defaultValue = "CSV") CatalogFormat format) {
+        var stats = catalogImportService.importBooks(Path.of(file), format, this::printProgress);
+        return "Imported " + statsToString(stats);
+    }
+
+    // bexp books.csv
+    // bexp books.ndjson --format NDJSON
+    @ShellMethod(value = "Export all books to CSV (title,author,genre) or NDJSON file", key = "bexp")
+    public String exportBooks(String file, @ShellOption(defaultValue = "CSV") CatalogFormat format) {
+        var stats = catalogExportService.exportBooks(Path.of(file), format, this::printProgress);
+        return "Exported " + statsToString(stats);
+    }
+
+    private void printProgress(TransferStats stats) {
+        terminal.writer().println("... " + statsToString(stats));
+        terminal.writer().flush();
+    }
+
+    private static String statsToString(TransferStats stats) {
+        return "%d rows in %d ms (%.0f rows/sec)".formatted(
+                stats.rows(), stats.elapsed().toMillis(), stats.rowsPerSecond());
+    }
+}
@@ -0,0 +1,64 @@
+package ru.otus.hw.commands;
+
+import lombok.RequiredArgsConstructor;
+import org.jline.terminal.Terminal;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+import ru.otus.hw.config.ChangeFeedProperties;
+import ru.otus.hw.models.BookChange;
+import ru.otus.hw.services.BookChangeService;
+
+import java.util.concurrent.TimeUnit;
+
+@SuppressWarnings({"SpellCheckingInspection", "unused"})
+@RequiredArgsConstructor
+@ShellComponent
+public class ChangeCommands {
+
+    private final BookChangeService bookChangeService;
+
+    private final ChangeFeedProperties changeFeedProperties;
+
+    private final Terminal terminal;
+
+    // chlast
+    @ShellMethod(value = "Show the last change sequence number", key = "chlast")
+    public String lastSeq() {
+        return "Last seq: %d".formatted(bookChangeService.lastSeq());
+    }
+
+    // chtail --afterSeq 0 --batchSize 1000
+    // chtail --afterSeq 42 --followSeconds 60
+    @ShellMethod(value = "Print book changes after a sequence number, in batches", key = "chtail")
+    public void tailChanges(@ShellOption(defaultValue = "0") long afterSeq,
+                            @ShellOption(defaultValue = "1000") int batchSize,
+                            @ShellOption(defaultValue = "0") int followSeconds) throws InterruptedException {
+        var writer = terminal.writer();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(followSeconds);
+        long lastSeq = afterSeq;
+        while (true) {
+            var changes = bookChangeService.readAfter(lastSeq, batchSize);
+            for (var change : changes) {
+                writer.println(changeToString(change));
+            }
+            writer.flush();
+            if (!changes.isEmpty()) {
+                lastSeq = changes.get(changes.size() - 1).seq();
+                continue;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(changeFeedProperties.getPollIntervalMillis());
+        }
+        //С этого номера продолжает следующий вызов
+        writer.println("Last seq: %d".formatted(lastSeq));
+        writer.flush();
+    }
+
+    private static String changeToString(BookChange change) {
+        return "Seq: %d, %s book %d, version: %d, at: %s".formatted(change.seq(), change.operation(),
+                change.bookId(), change.version(), change.changedAt());
+    }
+}
@@ -1,12 +1,16 @@
 package ru.otus.hw.commands;
 
 import lombok.RequiredArgsConstructor;
+import org.jline.terminal.Terminal;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
 import ru.otus.hw.converters.GenreConverter;
+import ru.otus.hw.models.Genre;
 import ru.otus.hw.services.GenreService;
 
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.List;
 
 @RequiredArgsConstructor
 @ShellComponent
@@ -16,10 +20,50 @@ public class GenreCommands {
 
     private final GenreConverter genreConverter;
 
+    private final Terminal terminal;
+
     @ShellMethod(value = "Find all genres", key = "ag")
     public String findAllGenres() {
-        return genreService.findAll().stream()
-                .map(genreConverter::genreToString)
-                .collect(Collectors.joining("," + System.lineSeparator()));
+        return genresToString(genreService.findAll());
+    }
+
+    // gids 1 2 3
+    @ShellMethod(value = "Find genres by ids in one query", key = "gids")
+    public String findGenresByIds(@ShellOption(arity = Integer.MAX_VALUE) long[] ids) {
+        return genresToString(genreService.findAllByIds(Arrays.stream(ids).boxed().toList()));
+    }
+
+    // gins Роман
+    @ShellMethod(value = "Insert genre", key = "gins")
+    public String insertGenre(String name) {
+        return genreConverter.genreToString(genreService.insert(name));
+    }
+
+    // ginsa Повесть Рассказ
+    @ShellMethod(value = "Insert genres in one batch", key = "ginsa")
+    public String insertGenres(@ShellOption(arity = Integer.MAX_VALUE) String[] names) {
+        return genresToString(genreService.insertAll(List.of(names)));
+    }
+
+    // gupd 1 "Исторический роман"
+    @ShellMethod(value = "Update genre", key = "gupd")
+    public String updateGenre(long id, String name) {
+        return genreConverter.genreToString(genreService.update(id, name));
+    }
+
+    // gdel 1
+    @ShellMethod(value = "Delete genre and its books in batches", key = "gdel")
+    public String deleteGenre(long id) {
+        long deletedBooks = genreService.deleteById(id, this::printProgress);
+        return "Genre %d deleted with %d books".formatted(id, deletedBooks);
+    }
+
+    private void printProgress(long deletedBooks) {
+        terminal.writer().println("... %d books deleted".formatted(deletedBooks));
+        terminal.writer().flush();
+    }
+
+    private String genresToString(List<Genre> genres) {
+        return genreConverter.appendGenres(new StringBuilder(), genres).toString();
     }
 }
@@ -0,0 +1,40 @@
+package ru.otus.hw.commands;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+import ru.otus.hw.converters.MeterConverter;
+
+import java.util.Comparator;
+
+@RequiredArgsConstructor
+@ShellComponent
+public class MetricsCommands {
+
+    private final MeterRegistry meterRegistry;
+
+    private final MeterConverter meterConverter;
+
+    // metrics --prefix library.operation
+    @ShellMethod(value = "Dump metrics whose name starts with prefix", key = "metrics")
+    public String dumpMetrics(@ShellOption(defaultValue = "library") String prefix) {
+        var meters = meterRegistry.getMeters().stream()
+                .filter(meter -> meter.getId().getName().startsWith(prefix))
+                //Перцентили уже выводятся в строке таймера
+                .filter(meter -> !meter.getId().getName().endsWith(".percentile"))
+                .sorted(Comparator.comparing((Meter meter) -> meter.getId().getName())
+                        .thenComparing(meter -> meter.getId().getTags().toString()))
+                .toList();
+        var out = new StringBuilder();
+        for (var meter : meters) {
+            if (!out.isEmpty()) {
+                out.append(System.lineSeparator());
+            }
+            meterConverter.appendMeter(out, meter);
+        }
+        return out.toString();
+    }
+}
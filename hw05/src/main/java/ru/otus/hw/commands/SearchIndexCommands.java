@@ -0,0 +1,21 @@
+package ru.otus.hw.commands;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import ru.otus.hw.search.BookSearchIndex;
+
+@RequiredArgsConstructor
+@ShellComponent
+public class SearchIndexCommands {
+
+    private final BookSearchIndex bookSearchIndex;
+
+    @ShellMethod(value = "Show full-text search index statistics", key = "sistat")
+    public String searchIndexStatistics() {
+        var stats = bookSearchIndex.getStats();
+        return "Books: %d, terms: %d, build time: %d ms, queries: %d, avg query time: %d us".formatted(
+                stats.documents(), stats.terms(), stats.buildTime().toMillis(),
+                stats.queries(), stats.averageQueryTime().toNanos() / 1000);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.otus.hw.commands;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+import ru.otus.hw.converters.AuthorConverter;
+import ru.otus.hw.converters.GenreConverter;
+import ru.otus.hw.models.AuthorBookCount;
+import ru.otus.hw.services.CatalogStatsService;
+
+import java.util.List;
+
+@SuppressWarnings({"SpellCheckingInspection", "unused"})
+@RequiredArgsConstructor
+@ShellComponent
+public class StatsCommands {
+
+    private final CatalogStatsService catalogStatsService;
+
+    private final AuthorConverter authorConverter;
+
+    private final GenreConverter genreConverter;
+
+    @ShellMethod(value = "Show total numbers of books, authors and genres", key = "stat")
+    public String totals() {
+        var totals = catalogStatsService.countTotals();
+        return "Books: %d, authors: %d, genres: %d".formatted(totals.books(), totals.authors(), totals.genres());
+    }
+
+    // stata --limit 20
+    @ShellMethod(value = "Count books per author", key = "stata")
+    public String countBooksByAuthor(@ShellOption(defaultValue = "100") int limit) {
+        return authorCountsToString(catalogStatsService.countBooksByAuthor(limit));
+    }
+
+    // statg
+    @ShellMethod(value = "Count books per genre", key = "statg")
+    public String countBooksByGenre(@ShellOption(defaultValue = "100") int limit) {
+        var out = new StringBuilder();
+        for (var count : catalogStatsService.countBooksByGenre(limit)) {
+            appendSeparator(out);
+            genreConverter.appendGenre(out, count.genre()).append(", books: ").append(count.books());
+        }
+        return out.toString();
+    }
+
+    // topa 10
+    @ShellMethod(value = "Find authors with the most books", key = "topa")
+    public String findTopAuthors(@ShellOption(defaultValue = "10") int limit) {
+        return authorCountsToString(catalogStatsService.findTopAuthors(limit));
+    }
+
+    private String authorCountsToString(List<AuthorBookCount> counts) {
+        var out = new StringBuilder();
+        for (var count : counts) {
+            appendSeparator(out);
+            authorConverter.appendAuthor(out, count.author()).append(", books: ").append(count.books());
+        }
+        return out.toString();
+    }
+
+    private static void appendSeparator(StringBuilder out) {
+        if (!out.isEmpty()) {
+            out.append(',').append(System.lineSeparator());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.otus.hw.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.otus.hw.cache.AfterCompletionEvictCache;
+import ru.otus.hw.cache.BookCache;
+
+import java.util.List;
+
+@EnableCaching
+@Configuration
+public class CacheConfig {
+
+    public static final String AUTHORS_CACHE = "authors";
+
+    public static final String GENRES_CACHE = "genres";
+
+    public static final String BOOKS_CACHE = "books";
+
+    @Bean
+    public CacheManager cacheManager(LibraryCacheProperties cacheProperties) {
+        var cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                                               com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return switch (name) {
+                    case BOOKS_CACHE -> new BookCache(name, cache, isAllowNullValues());
+                    case AUTHORS_CACHE, GENRES_CACHE -> new AfterCompletionEvictCache(name, cache, isAllowNullValues());
+                    default -> super.adaptCaffeineCache(name, cache);
+                };
+            }
+        };
+        //Только явно описанные кэши, чтобы не появлялись неограниченные кэши по опечатке в имени
+        cacheManager.setCacheNames(List.of());
+        cacheProperties.getSpecs().forEach((name, spec) ->
+                cacheManager.registerCustomCache(name, Caffeine.from(spec).recordStats().build()));
+        return cacheManager;
+    }
+
+    //Попадания и промахи публикует Spring Boot (cache.gets), доля попаданий считается здесь
+    @Bean
+    public MeterBinder cacheHitRatioMetrics(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().forEach(name -> {
+            var cache = (CaffeineCache) cacheManager.getCache(name);
+            Gauge.builder("cache.hit.ratio", cache, c -> c.getNativeCache().stats().hitRate())
+                    .tag("cache", name)
+                    .register(registry);
+        });
+    }
+}
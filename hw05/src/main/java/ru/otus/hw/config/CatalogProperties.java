@@ -0,0 +1,21 @@
+package ru.otus.hw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.catalog")
+public class CatalogProperties {
+
+    // Количество книг, импортируемых в одной транзакции
+    private int importChunkSize = 10_000;
+
+    // Через сколько выгруженных книг сообщать о прогрессе
+    private int exportProgressInterval = 100_000;
+
+    // Размер буфера записи в файл, символов
+    private int exportBufferSize = 64 * 1024;
+
+    // Книг в одном пакете при удалении автора или жанра: каждый пакет - отдельная короткая транзакция
+    private int cascadeDeleteBatchSize = 1000;
+}
@@ -0,0 +1,18 @@
+package ru.otus.hw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.changes")
+public class ChangeFeedProperties {
+
+    // Сколько ждать незакоммиченное изменение с пропущенным seq, прежде чем отдать следующие за ним
+    private long gapTimeoutMillis = 5000;
+
+    // Сколько перепроверять seq, пропущенный по gap-timeout: медленная транзакция может закоммитить его позже
+    private long skippedSeqRecheckMillis = 600_000;
+
+    // Пауза между опросами журнала, когда новых изменений нет
+    private long pollIntervalMillis = 500;
+}
@@ -0,0 +1,15 @@
+package ru.otus.hw.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+public class ExecutionConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService libraryExecutor(ExecutionProperties executionProperties) {
+        return LibraryExecutors.newExecutor(executionProperties.getMode(), executionProperties.getPlatformThreads());
+    }
+}
@@ -0,0 +1,18 @@
+package ru.otus.hw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.execution")
+public class ExecutionProperties {
+
+    // Потоки для асинхронных вызовов сервисов: PLATFORM или VIRTUAL (Java 21+)
+    private ExecutionMode mode = ExecutionMode.PLATFORM;
+
+    // Размер пула платформенных потоков
+    private int platformThreads = 32;
+
+    // Сколько запросов к БД может выполняться одновременно, не больше размера пула соединений
+    private int maxConcurrentQueries = 10;
+}
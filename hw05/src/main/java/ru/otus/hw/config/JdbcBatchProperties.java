@@ -0,0 +1,12 @@
+package ru.otus.hw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.jdbc.batch")
+public class JdbcBatchProperties {
+
+    // Количество строк в одном JDBC batch
+    private int size = 500;
+}
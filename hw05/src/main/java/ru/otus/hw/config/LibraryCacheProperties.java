@@ -0,0 +1,18 @@
+package ru.otus.hw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "library.cache")
+public class LibraryCacheProperties {
+
+    // Имя кэша -> спецификация Caffeine (maximumSize, expireAfterWrite, ...)
+    private Map<String, String> specs = new LinkedHashMap<>();
+
+    // Сколько первых книг загрузить в кэш при старте, 0 - не прогревать
+    private int warmUpBooks = 10_000;
+}
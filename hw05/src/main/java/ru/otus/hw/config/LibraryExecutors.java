@@ -0,0 +1,40 @@
+package ru.otus.hw.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class LibraryExecutors {
+
+    private LibraryExecutors() {
+    }
+
+    //VIRTUAL на Java ниже 21 - ошибка конфигурации: тихая замена платформенными потоками
+    //выдавала бы их за виртуальные и в приложении, и в бенчмарках
+    public static ExecutorService newExecutor(ExecutionMode mode, int platformThreads) {
+        if (mode == ExecutionMode.VIRTUAL) {
+            var virtualExecutor = newVirtualThreadPerTaskExecutor();
+            if (virtualExecutor == null) {
+                throw new IllegalStateException("Virtual threads require Java 21+, running on Java %d: "
+                        .formatted(Runtime.version().feature()) + "set library.execution.mode=platform");
+            }
+            return virtualExecutor;
+        }
+        var threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(platformThreads, runnable -> {
+            var thread = new Thread(runnable, "library-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //Проект собирается под Java 17, поэтому фабрика виртуальных потоков вызывается через reflection
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+}
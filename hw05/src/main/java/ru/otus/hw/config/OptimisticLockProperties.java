@@ -0,0 +1,17 @@
+package ru.otus.hw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.optimistic-lock")
+public class OptimisticLockProperties {
+
+    // Сколько раз повторять чтение-изменение-запись книги, прежде чем отдать конфликт вызывающему
+    private int maxAttempts = 5;
+
+    // Пауза перед первым повтором, дальше удваивается со случайным разбросом
+    private long initialBackoffMillis = 2;
+
+    private long maxBackoffMillis = 100;
+}
@@ -0,0 +1,21 @@
+package ru.otus.hw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.soft-delete")
+public class SoftDeleteProperties {
+
+    // true: удаление книги только проставляет deleted_at, строки удаляет фоновая очистка.
+    // По умолчанию выключено: bdel и DELETE /api/books/{id} удаляют строку сразу, как и раньше
+    private boolean enabled = false;
+
+    // Строк в одном DELETE очистки: каждый пакет - короткая отдельная транзакция
+    private int purgeBatchSize = 1000;
+
+    // Не больше пакетов за один запуск, остаток достанется следующему
+    private int purgeMaxBatchesPerRun = 100;
+
+    private long purgeIntervalMillis = 10_000;
+}
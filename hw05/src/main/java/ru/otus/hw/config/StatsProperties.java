@@ -0,0 +1,12 @@
+package ru.otus.hw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.stats")
+public class StatsProperties {
+
+    // Вести таблицу book_counts триггером и читать статистику из нее, а не через GROUP BY
+    private boolean countsTable = false;
+}
@@ -0,0 +1,46 @@
+package ru.otus.hw.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.services.AuthorService;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/authors")
+public class AuthorController {
+
+    private final AuthorService authorService;
+
+    private final JsonArrayStreamer jsonArrayStreamer;
+
+    private final CatalogETags catalogETags;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Author> findById(@PathVariable long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogETags.of("author-" + id))) {
+            return null;
+        }
+        var author = authorService.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Author with id %d not found".formatted(id)));
+        return ResponseEntity.ok(author);
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> findAll(WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogETags.of("authors"))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonArrayStreamer.stream(() -> authorService.findAll().stream()));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.otus.hw.controllers;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ru.otus.hw.dto.BookRequest;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.services.BookService;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/books")
+public class BookController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final BookService bookService;
+
+    private final JsonArrayStreamer jsonArrayStreamer;
+
+    private final CatalogETags catalogETags;
+
+    // GET /api/books/1
+    @GetMapping("/{id}")
+    public ResponseEntity<Book> findById(@PathVariable long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogETags.of("book-" + id))) {
+            return null;
+        }
+        var book = bookService.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Book with id = [%s] not found", id)));
+        return ResponseEntity.ok(book);
+    }
+
+    // GET /api/books?afterId=0&limit=100
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> findPage(@RequestParam(defaultValue = "0") long afterId,
+                                                          @RequestParam(defaultValue = "100") int limit,
+                                                          WebRequest webRequest) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and %d".formatted(MAX_PAGE_SIZE));
+        }
+        if (webRequest.checkNotModified(catalogETags.of("books-%d-%d".formatted(afterId, limit)))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonArrayStreamer.stream(() -> bookService.findPage(afterId, limit).stream()));
+    }
+
+    // GET /api/books/all - весь каталог одним массивом, строки читаются из курсора по мере записи
+    @GetMapping("/all")
+    public ResponseEntity<StreamingResponseBody> findAll(WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogETags.of("books"))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonArrayStreamer.stream(bookService::streamAll));
+    }
+
+    @PostMapping
+    public ResponseEntity<Book> insert(@Valid @RequestBody BookRequest request) {
+        var book = bookService.insert(request.title(), request.authorId(), request.genreId());
+        var location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(book.getId())
+                .toUri();
+        return ResponseEntity.created(location).body(book);
+    }
+
+    @PutMapping("/{id}")
+    public Book update(@PathVariable long id, @Valid @RequestBody BookRequest request) {
+        //Без версии, прочитанной клиентом, нельзя отличить его изменение от затирания чужого
+        if (request.version() == null) {
+            throw new IllegalArgumentException("Book version is required");
+        }
+        return bookService.update(id, request.version(), request.title(), request.authorId(), request.genreId());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteById(@PathVariable long id) {
+        bookService.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+}
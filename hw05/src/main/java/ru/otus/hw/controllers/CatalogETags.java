@@ -0,0 +1,18 @@
+package ru.otus.hw.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.otus.hw.services.CatalogVersion;
+
+//ETag ответа = ресурс + запуск приложения + версия каталога: пока в каталоге ничего не менялось,
+//клиент получает 304
+@RequiredArgsConstructor
+@Component
+public class CatalogETags {
+
+    private final CatalogVersion catalogVersion;
+
+    public String of(String resource) {
+        return "\"%s-%x-v%d\"".formatted(resource, catalogVersion.epoch(), catalogVersion.current());
+    }
+}
@@ -0,0 +1,32 @@
+package ru.otus.hw.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.otus.hw.models.BookChange;
+import ru.otus.hw.services.BookChangeService;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeController {
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    private final BookChangeService bookChangeService;
+
+    // GET /api/changes?afterSeq=0&limit=1000 - следующий запрос с afterSeq = seq последнего изменения.
+    // Пустой массив: новых изменений пока нет
+    @GetMapping
+    public List<BookChange> findAfter(@RequestParam(defaultValue = "0") long afterSeq,
+                                      @RequestParam(defaultValue = "1000") int limit) {
+        if (limit < 1 || limit > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and %d".formatted(MAX_BATCH_SIZE));
+        }
+        return bookChangeService.readAfter(afterSeq, limit);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.otus.hw.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.services.GenreService;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/genres")
+public class GenreController {
+
+    private final GenreService genreService;
+
+    private final JsonArrayStreamer jsonArrayStreamer;
+
+    private final CatalogETags catalogETags;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Genre> findById(@PathVariable long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogETags.of("genre-" + id))) {
+            return null;
+        }
+        var genre = genreService.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Genre with id %d not found".formatted(id)));
+        return ResponseEntity.ok(genre);
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> findAll(WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogETags.of("genres"))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonArrayStreamer.stream(() -> genreService.findAll().stream()));
+    }
+}
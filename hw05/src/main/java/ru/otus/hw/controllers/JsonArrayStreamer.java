@@ -0,0 +1,33 @@
+package ru.otus.hw.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+//Пишет JSON-массив по одному элементу прямо в ответ, не собирая его целиком в памяти
+@RequiredArgsConstructor
+@Component
+public class JsonArrayStreamer {
+
+    private final ObjectMapper objectMapper;
+
+    public <T> StreamingResponseBody stream(Supplier<Stream<T>> source) {
+        return outputStream -> {
+            try (var generator = objectMapper.getFactory().createGenerator(outputStream);
+                 var items = source.get()) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                var iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+}
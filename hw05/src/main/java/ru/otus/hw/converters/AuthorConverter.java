@@ -6,6 +6,22 @@ import ru.otus.hw.models.Author;
 @Component
 public class AuthorConverter {
     public String authorToString(Author author) {
-        return "Id: %d, FullName: %s".formatted(author.getId(), author.getFullName());
+        return appendAuthor(new StringBuilder(), author).toString();
+    }
+
+    public StringBuilder appendAuthor(StringBuilder out, Author author) {
+        return out.append("Id: ").append(author.getId())
+                .append(", FullName: ").append(author.getFullName());
+    }
+
+    public StringBuilder appendAuthors(StringBuilder out, Iterable<Author> authors) {
+        var iterator = authors.iterator();
+        while (iterator.hasNext()) {
+            appendAuthor(out, iterator.next());
+            if (iterator.hasNext()) {
+                out.append(',').append(System.lineSeparator());
+            }
+        }
+        return out;
     }
 }
@@ -4,18 +4,67 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.otus.hw.models.Book;
 
+import java.io.PrintWriter;
+import java.util.Iterator;
+
 @RequiredArgsConstructor
 @Component
 public class BookConverter {
+
+    // Начальная емкость буфера под одну книгу
+    private static final int BOOK_BUFFER_CAPACITY = 256;
+
     private final AuthorConverter authorConverter;
 
     private final GenreConverter genreConverter;
 
     public String bookToString(Book book) {
-        return "Id: %d, title: %s, author: {%s}, genres: [%s]".formatted(
-                book.getId(),
-                book.getTitle(),
-                authorConverter.authorToString(book.getAuthor()),
-                genreConverter.genreToString(book.getGenre()));
+        return appendBook(new StringBuilder(BOOK_BUFFER_CAPACITY), book).toString();
+    }
+
+    public StringBuilder appendBook(StringBuilder out, Book book) {
+        out.append("Id: ").append(book.getId())
+                .append(", title: ").append(book.getTitle())
+                .append(", author: {");
+        authorConverter.appendAuthor(out, book.getAuthor())
+                .append("}, genres: [");
+        genreConverter.appendGenre(out, book.getGenre());
+        for (var genre : book.getExtraGenres()) {
+            genreConverter.appendGenre(out.append(", "), genre);
+        }
+        return out.append("], version: ").append(book.getVersion());
+    }
+
+    public StringBuilder appendBooks(StringBuilder out, Iterable<Book> books) {
+        var iterator = books.iterator();
+        while (iterator.hasNext()) {
+            appendBook(out, iterator.next());
+            if (iterator.hasNext()) {
+                out.append(',').append(System.lineSeparator());
+            }
+        }
+        return out;
+    }
+
+    //Пишет книги в writer по мере чтения: буфер строки и массив символов переиспользуются,
+    //поэтому на книгу не создается ни одной промежуточной строки
+    public long writeBooks(Iterator<Book> books, PrintWriter writer) {
+        var line = new StringBuilder(BOOK_BUFFER_CAPACITY);
+        var chars = new char[BOOK_BUFFER_CAPACITY];
+        long count = 0;
+        while (books.hasNext()) {
+            line.setLength(0);
+            appendBook(line, books.next())
+                    .append(books.hasNext() ? "," : "")
+                    .append(System.lineSeparator());
+            if (chars.length < line.length()) {
+                chars = new char[line.length()];
+            }
+            line.getChars(0, line.length(), chars, 0);
+            writer.write(chars, 0, line.length());
+            count++;
+        }
+        writer.flush();
+        return count;
     }
 }
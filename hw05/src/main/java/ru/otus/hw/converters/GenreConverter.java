@@ -6,6 +6,22 @@ import ru.otus.hw.models.Genre;
 @Component
 public class GenreConverter {
     public String genreToString(Genre genre) {
-        return "Id: %d, Name: %s".formatted(genre.getId(), genre.getName());
+        return appendGenre(new StringBuilder(), genre).toString();
+    }
+
+    public StringBuilder appendGenre(StringBuilder out, Genre genre) {
+        return out.append("Id: ").append(genre.getId())
+                .append(", Name: ").append(genre.getName());
+    }
+
+    public StringBuilder appendGenres(StringBuilder out, Iterable<Genre> genres) {
+        var iterator = genres.iterator();
+        while (iterator.hasNext()) {
+            appendGenre(out, iterator.next());
+            if (iterator.hasNext()) {
+                out.append(',').append(System.lineSeparator());
+            }
+        }
+        return out;
     }
 }
@@ -0,0 +1,61 @@
+package ru.otus.hw.converters;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+@Component
+public class MeterConverter {
+    public String meterToString(Meter meter) {
+        return appendMeter(new StringBuilder(), meter).toString();
+    }
+
+    public StringBuilder appendMeter(StringBuilder out, Meter meter) {
+        var id = meter.getId();
+        out.append(id.getName()).append('{');
+        var tags = id.getTags();
+        for (int i = 0; i < tags.size(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(tags.get(i).getKey()).append('=').append(tags.get(i).getValue());
+        }
+        return out.append("} ").append(valuesToString(meter));
+    }
+
+    private String valuesToString(Meter meter) {
+        if (meter instanceof Timer timer) {
+            return snapshotToString(timer.takeSnapshot(), TimeUnit.MILLISECONDS) + " ms";
+        }
+        if (meter instanceof DistributionSummary summary) {
+            return snapshotToString(summary.takeSnapshot(), null);
+        }
+        return StreamSupport.stream(meter.measure().spliterator(), false)
+                .map(measurement -> "%s: %s".formatted(
+                        measurement.getStatistic().name().toLowerCase(), measurement.getValue()))
+                .collect(Collectors.joining(", "));
+    }
+
+    private String snapshotToString(HistogramSnapshot snapshot, TimeUnit unit) {
+        var percentiles = Arrays.stream(snapshot.percentileValues())
+                .map(value -> "p%s: %.3f".formatted(
+                        Math.round(value.percentile() * 100), percentileValue(value, unit)))
+                .collect(Collectors.joining(", "));
+        double mean = unit == null ? snapshot.mean() : snapshot.mean(unit);
+        double max = unit == null ? snapshot.max() : snapshot.max(unit);
+        return "count: %d, mean: %.3f, max: %.3f%s".formatted(snapshot.count(), mean, max,
+                percentiles.isEmpty() ? "" : ", " + percentiles);
+    }
+
+    private static double percentileValue(ValueAtPercentile value, TimeUnit unit) {
+        return unit == null ? value.value() : value.value(unit);
+    }
+}
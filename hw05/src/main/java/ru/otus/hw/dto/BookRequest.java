@@ -0,0 +1,13 @@
+package ru.otus.hw.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+// version обязателен при изменении: если книгу уже изменили, запрос отклоняется с 409.
+// Ссылки - объекты, а не long: иначе пропущенное поле стало бы id 0 и ответом 404 вместо 400
+public record BookRequest(@NotBlank String title,
+                          @NotNull @Positive Long authorId,
+                          @NotNull @Positive Long genreId,
+                          Long version) {
+}
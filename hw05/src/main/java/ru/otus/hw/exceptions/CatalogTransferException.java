@@ -0,0 +1,11 @@
+package ru.otus.hw.exceptions;
+
+public class CatalogTransferException extends RuntimeException {
+    public CatalogTransferException(String message, Throwable ex) {
+        super(message, ex);
+    }
+
+    public CatalogTransferException(String message) {
+        super(message);
+    }
+}
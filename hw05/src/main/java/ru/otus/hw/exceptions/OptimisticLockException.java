@@ -0,0 +1,13 @@
+package ru.otus.hw.exceptions;
+
+public class OptimisticLockException extends RuntimeException {
+    public OptimisticLockException(String message) {
+        super(message);
+    }
+
+    public static OptimisticLockException bookChanged(long id, long expectedVersion, long actualVersion) {
+        return new OptimisticLockException(
+                "Book with id = [%s] was changed concurrently: expected version %d, actual %d"
+                        .formatted(id, expectedVersion, actualVersion));
+    }
+}
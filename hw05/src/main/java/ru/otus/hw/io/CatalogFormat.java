@@ -0,0 +1,6 @@
+package ru.otus.hw.io;
+
+public enum CatalogFormat {
+    CSV,
+    NDJSON
+}
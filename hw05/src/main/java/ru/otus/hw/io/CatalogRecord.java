@@ -0,0 +1,4 @@
+package ru.otus.hw.io;
+
+public record CatalogRecord(String title, String author, String genre) {
+}
@@ -0,0 +1,10 @@
+package ru.otus.hw.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface CatalogRecordReader extends Closeable {
+
+    // null, когда записи закончились
+    CatalogRecord read() throws IOException;
+}
@@ -0,0 +1,8 @@
+package ru.otus.hw.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface CatalogRecordWriter extends Closeable {
+    void write(CatalogRecord record) throws IOException;
+}
@@ -0,0 +1,43 @@
+package ru.otus.hw.io;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import ru.otus.hw.exceptions.CatalogTransferException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public class CsvCatalogRecordReader implements CatalogRecordReader {
+
+    private static final int COLUMNS_COUNT = 3;
+
+    private final CSVReader csvReader;
+
+    public CsvCatalogRecordReader(Reader reader) {
+        //Первая строка - заголовок title,author,genre
+        this.csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build();
+    }
+
+    @Override
+    public CatalogRecord read() throws IOException {
+        try {
+            String[] line = csvReader.readNext();
+            if (line == null) {
+                return null;
+            }
+            if (line.length != COLUMNS_COUNT) {
+                throw new CatalogTransferException("Line %d: expected %d columns but was %d"
+                        .formatted(csvReader.getLinesRead(), COLUMNS_COUNT, line.length));
+            }
+            return new CatalogRecord(line[0], line[1], line[2]);
+        } catch (CsvValidationException e) {
+            throw new CatalogTransferException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        csvReader.close();
+    }
+}
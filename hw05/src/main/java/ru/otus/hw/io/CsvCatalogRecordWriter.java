@@ -0,0 +1,51 @@
+package ru.otus.hw.io;
+
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class CsvCatalogRecordWriter implements CatalogRecordWriter {
+
+    private static final String[] HEADER = {"title", "author", "genre"};
+
+    private final ICSVWriter csvWriter;
+
+    private final String[] line = new String[HEADER.length];
+
+    public CsvCatalogRecordWriter(Writer writer) {
+        this.csvWriter = new CSVWriter(writer);
+        this.csvWriter.writeNext(HEADER, false);
+    }
+
+    @Override
+    public void write(CatalogRecord record) throws IOException {
+        line[0] = record.title();
+        line[1] = record.author();
+        line[2] = record.genre();
+        csvWriter.writeNext(line);
+        //CSVWriter не бросает IOException, а запоминает ее: без проверки выгрузка, прерванная
+        //на середине (нет места на диске, закрытый канал), выглядела бы успешной
+        if (csvWriter.getException() != null) {
+            throw writeFailure();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        //checkError дописывает буфер и сообщает об ошибке, в том числе случившейся при этой записи
+        boolean failed = csvWriter.checkError();
+        csvWriter.close();
+        if (failed) {
+            throw writeFailure();
+        }
+    }
+
+    private IOException writeFailure() {
+        var exception = csvWriter.getException();
+        return exception == null
+                ? new IOException("CSV write failed")
+                : new IOException("CSV write failed: " + exception.getMessage(), exception);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.otus.hw.io;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+public class NdjsonCatalogRecordReader implements CatalogRecordReader {
+
+    private final BufferedReader reader;
+
+    private final ObjectReader recordReader;
+
+    public NdjsonCatalogRecordReader(BufferedReader reader, ObjectReader recordReader) {
+        this.reader = reader;
+        this.recordReader = recordReader.forType(CatalogRecord.class);
+    }
+
+    @Override
+    public CatalogRecord read() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+
+        return line == null ? null : recordReader.readValue(line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
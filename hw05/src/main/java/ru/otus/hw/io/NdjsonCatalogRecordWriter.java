@@ -0,0 +1,28 @@
+package ru.otus.hw.io;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class NdjsonCatalogRecordWriter implements CatalogRecordWriter {
+
+    private final SequenceWriter sequenceWriter;
+
+    public NdjsonCatalogRecordWriter(Writer writer, ObjectWriter recordWriter) throws IOException {
+        this.sequenceWriter = recordWriter.forType(CatalogRecord.class)
+                .withRootValueSeparator(System.lineSeparator())
+                .writeValues(writer);
+    }
+
+    @Override
+    public void write(CatalogRecord record) throws IOException {
+        sequenceWriter.write(record);
+    }
+
+    @Override
+    public void close() throws IOException {
+        sequenceWriter.close();
+    }
+}
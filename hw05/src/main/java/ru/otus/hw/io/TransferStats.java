@@ -0,0 +1,11 @@
+package ru.otus.hw.io;
+
+import java.time.Duration;
+
+public record TransferStats(long rows, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long millis = Math.max(1, elapsed.toMillis());
+        return rows * 1000.0 / millis;
+    }
+}
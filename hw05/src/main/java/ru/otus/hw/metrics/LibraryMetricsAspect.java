@@ -0,0 +1,86 @@
+package ru.otus.hw.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Component
+public class LibraryMetricsAspect {
+
+    public static final String OPERATION_TIMER = "library.operation";
+
+    public static final String OPERATION_ROWS = "library.operation.rows";
+
+    public static final String OPERATION_FAILURES = "library.operation.failures";
+
+    private final MeterRegistry meterRegistry;
+
+    //Самый внешний совет, чтобы время включало кэш и транзакцию, как его видит вызывающий код
+    @Around("execution(public * ru.otus.hw.repositories.BookRepository+.*(..))"
+            + " || execution(public * ru.otus.hw.repositories.AuthorRepository+.*(..))"
+            + " || execution(public * ru.otus.hw.repositories.GenreRepository+.*(..))"
+            + " || execution(public * ru.otus.hw.services.BookService+.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        var operation = joinPoint.getTarget().getClass().getSimpleName() + "." + joinPoint.getSignature().getName();
+        var sample = Timer.start(meterRegistry);
+        try {
+            var result = joinPoint.proceed();
+            sample.stop(timer(operation, "success", "none"));
+            recordRows(operation, result);
+            return result;
+        } catch (Throwable e) {
+            var exception = e.getClass().getSimpleName();
+            sample.stop(timer(operation, "failure", exception));
+            Counter.builder(OPERATION_FAILURES)
+                    .tag("operation", operation)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        }
+    }
+
+    private Timer timer(String operation, String outcome, String exception) {
+        return Timer.builder(OPERATION_TIMER)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void recordRows(String operation, Object result) {
+        //Потоки читаются после возврата из метода, их строки здесь не посчитать
+        if (result == null || result instanceof Stream<?>) {
+            return;
+        }
+        long rows;
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof Optional<?> optional) {
+            rows = optional.isPresent() ? 1 : 0;
+        } else {
+            rows = 1;
+        }
+        DistributionSummary.builder(OPERATION_ROWS)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(rows);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.otus.hw.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@Component
+public class StartupTimeLogger implements ApplicationRunner {
+
+    //Выполняется после миграций, построения индекса и прогрева кэша, то есть перед первой командой shell.
+    //"Started Application in" в логе Spring Boot выводится раньше и эти шаги не учитывает
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Library ready in {} ms since JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+}
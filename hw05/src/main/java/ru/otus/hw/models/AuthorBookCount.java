@@ -0,0 +1,4 @@
+package ru.otus.hw.models;
+
+public record AuthorBookCount(Author author, long books) {
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -15,4 +17,18 @@ public class Book {
     private Author author;
 
     private Genre genre;
+
+    // Версия строки в таблице books, изменение с устаревшей версией отклоняется
+    private long version;
+
+    // Жанры книги помимо основного genre, по возрастанию id
+    private List<Genre> extraGenres = List.of();
+
+    public Book(long id, String title, Author author, Genre genre) {
+        this(id, title, author, genre, 0);
+    }
+
+    public Book(long id, String title, Author author, Genre genre, long version) {
+        this(id, title, author, genre, version, List.of());
+    }
 }
@@ -0,0 +1,6 @@
+package ru.otus.hw.models;
+
+import java.time.Instant;
+
+public record BookChange(long seq, long bookId, ChangeOperation operation, long version, Instant changedAt) {
+}
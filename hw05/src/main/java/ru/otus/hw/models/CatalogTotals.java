@@ -0,0 +1,4 @@
+package ru.otus.hw.models;
+
+public record CatalogTotals(long books, long authors, long genres) {
+}
@@ -0,0 +1,5 @@
+package ru.otus.hw.models;
+
+public enum ChangeOperation {
+    INSERT, UPDATE, DELETE
+}
@@ -0,0 +1,4 @@
+package ru.otus.hw.models;
+
+public record GenreBookCount(Genre genre, long books) {
+}
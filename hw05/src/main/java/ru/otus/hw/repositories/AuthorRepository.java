@@ -2,6 +2,7 @@ package ru.otus.hw.repositories;
 
 import ru.otus.hw.models.Author;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +10,14 @@ public interface AuthorRepository {
     List<Author> findAll();
 
     Optional<Author> findById(long id);
+
+    List<Author> findAllByIds(Collection<Long> ids);
+
+    List<Author> insertAll(Collection<Author> authors);
+
+    // Вставка при id = 0, иначе изменение
+    Author save(Author author);
+
+    // Удаляет и оставшиеся книги, возвращает их id. Большие удаления сначала убирают книги пакетами
+    List<Long> deleteById(long id);
 }
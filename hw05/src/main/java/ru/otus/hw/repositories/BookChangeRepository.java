@@ -0,0 +1,18 @@
+package ru.otus.hw.repositories;
+
+import ru.otus.hw.models.BookChange;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookChangeRepository {
+    // Изменения с seq больше afterSeq по возрастанию seq
+    List<BookChange> findAllAfter(long afterSeq, int limit);
+
+    // 0, если изменений еще не было
+    long findLastSeq();
+
+    // Переносит найденные из перечисленных изменений в конец журнала под новыми seq, сохраняя их порядок.
+    // Возвращает старые seq перенесенных изменений
+    List<Long> moveToEnd(Collection<Long> seqs);
+}
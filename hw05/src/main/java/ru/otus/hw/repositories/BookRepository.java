@@ -2,15 +2,60 @@ package ru.otus.hw.repositories;
 
 import ru.otus.hw.models.Book;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookRepository {
     Optional<Book> findById(long id);
 
+    // Текущая версия строки в обход кэша, пусто для отсутствующей или удаленной книги
+    Optional<Long> findVersionById(long id);
+
     List<Book> findAll();
 
+    List<Book> findAllByIds(Collection<Long> ids);
+
+    List<Book> findAllAfter(long afterId, int limit);
+
+    List<Book> findAllByAuthorId(long authorId, int limit);
+
+    // Страница книг автора с id больше afterId, по возрастанию id
+    List<Book> findAllByAuthorId(long authorId, long afterId, int limit);
+
+    List<Book> findAllByGenreId(long genreId, int limit);
+
+    List<Book> findAllByTitlePrefix(String titlePrefix, int limit);
+
+    Stream<Book> streamAll();
+
+    Stream<Book> streamAll(long offset, int limit);
+
+    long count();
+
     Book save(Book book);
 
+    // Пустой результат, если нет автора, жанра, изменяемой книги или ее версия уже другая
+    Optional<Book> upsert(Book book);
+
+    List<Book> saveAll(Collection<Book> books);
+
+    // Заменяет дополнительные жанры книги, основной жанр меняется через save или upsert
+    void replaceExtraGenres(long bookId, Collection<Long> genreIds);
+
     void deleteById(long id);
+
+    // Книга перестает читаться сразу, а строку потом удаляет purgeDeleted
+    void softDeleteById(long id);
+
+    // Физически удаляет не больше limit книг автора одним коротким запросом, возвращает id удаленных
+    List<Long> deleteBatchByAuthorId(long authorId, int limit);
+
+    List<Long> deleteBatchByGenreId(long genreId, int limit);
+
+    // Физически удаляет не больше limit мягко удаленных книг, возвращает сколько записей очереди обработано
+    int purgeDeleted(int limit);
+
+    long countDeleted();
 }
@@ -0,0 +1,18 @@
+package ru.otus.hw.repositories;
+
+import ru.otus.hw.models.AuthorBookCount;
+import ru.otus.hw.models.CatalogTotals;
+import ru.otus.hw.models.GenreBookCount;
+
+import java.util.List;
+
+public interface CatalogStatsRepository {
+    // Авторы и жанры без книг тоже возвращаются, с нулем. Порядок по id
+    List<AuthorBookCount> countBooksByAuthor(int limit);
+
+    List<GenreBookCount> countBooksByGenre(int limit);
+
+    List<AuthorBookCount> findTopAuthors(int limit);
+
+    CatalogTotals countTotals();
+}
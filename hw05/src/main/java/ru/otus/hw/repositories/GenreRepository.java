@@ -2,6 +2,7 @@ package ru.otus.hw.repositories;
 
 import ru.otus.hw.models.Genre;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +10,14 @@ public interface GenreRepository {
     List<Genre> findAll();
 
     Optional<Genre> findById(long id);
+
+    List<Genre> findAllByIds(Collection<Long> ids);
+
+    List<Genre> insertAll(Collection<Genre> genres);
+
+    // Вставка при id = 0, иначе изменение
+    Genre save(Genre genre);
+
+    // Удаляет и оставшиеся книги, возвращает их id. Большие удаления сначала убирают книги пакетами
+    List<Long> deleteById(long id);
 }
@@ -0,0 +1,35 @@
+package ru.otus.hw.repositories;
+
+import org.springframework.jdbc.core.SqlParameterValue;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+//Поиск по списку id одним запросом: id передаются одним параметром-массивом и соединяются с таблицей
+//через "TABLE(id BIGINT = :ids)". Текст запроса не зависит от количества id, поэтому план кэшируется,
+//а каждая строка ищется по первичному ключу. "IN (:ids)" дает новый текст на каждый размер списка,
+//а "= ANY(:ids)" H2 проверяет перебором всего массива для каждой строки
+final class IdLookup {
+
+    private IdLookup() {
+    }
+
+    static SqlParameterValue idArray(Collection<Long> ids) {
+        return new SqlParameterValue(Types.ARRAY, new LinkedHashSet<>(ids).toArray(Long[]::new));
+    }
+
+    //Результат в порядке запрошенных id, без повторов и без ненайденных
+    static <T> List<T> inIdOrder(Collection<Long> ids, List<T> found, ToLongFunction<T> idOf) {
+        var foundById = new HashMap<Long, T>(found.size() * 2);
+        found.forEach(item -> foundById.put(idOf.applyAsLong(item), item));
+        return new LinkedHashSet<>(ids).stream()
+                .map(foundById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
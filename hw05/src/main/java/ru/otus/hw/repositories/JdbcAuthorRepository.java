@@ -1,13 +1,22 @@
 package ru.otus.hw.repositories;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.exceptions.EntityNotFoundException;
 import ru.otus.hw.models.Author;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -16,6 +25,20 @@ import java.util.Optional;
 @AllArgsConstructor
 public class JdbcAuthorRepository implements AuthorRepository {
 
+    // Дополнительные жанры книг, удаляемых вместе с записью: у book_genres нет внешнего ключа на books,
+    // поэтому без этого их строки остались бы в таблице
+    private static final String DELETE_BOOKS_EXTRA_GENRES = """
+            MERGE INTO book_genres USING (SELECT id FROM books WHERE author_id = :id) ids
+                ON book_genres.book_id = ids.id
+            WHEN MATCHED THEN DELETE
+            """;
+
+    // Книги удаляются явно, а не каскадом внешнего ключа, чтобы вернуть их id: вызывающий убирает их
+    // из поискового индекса и кэша
+    private static final String DELETE_BOOKS = """
+            SELECT id FROM OLD TABLE (DELETE FROM books WHERE author_id = :id)
+            """;
+
     private static final RowMapper<Author> ROW_MAPPER = new AuthorRowMapper();
 
     private final NamedParameterJdbcTemplate jdbcTemplate;
@@ -25,6 +48,7 @@ public class JdbcAuthorRepository implements AuthorRepository {
         return jdbcTemplate.query("SELECT id, full_name FROM authors", ROW_MAPPER);
     }
 
+    @Cacheable(cacheNames = CacheConfig.AUTHORS_CACHE, unless = "#result == null")
     @Override
     public Optional<Author> findById(long id) {
         var queryParameters = Map.of("id", id);
@@ -35,6 +59,67 @@ public class JdbcAuthorRepository implements AuthorRepository {
         return authors.stream().findFirst();
     }
 
+    @Override
+    public List<Author> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var queryParameters = Map.of("ids", IdLookup.idArray(ids));
+        String queryString = """
+                SELECT authors.id, authors.full_name
+                FROM TABLE(id BIGINT = :ids) ids
+                    JOIN authors on authors.id = ids.id
+                """;
+
+        var authors = jdbcTemplate.query(queryString, queryParameters, ROW_MAPPER);
+        return IdLookup.inIdOrder(ids, authors, Author::getId);
+    }
+
+    @Override
+    public List<Author> insertAll(Collection<Author> authors) {
+        var newAuthors = List.copyOf(authors);
+        var keyHolder = new GeneratedKeyHolder();
+        var batchParameters = newAuthors.stream()
+                .map(author -> new MapSqlParameterSource("full_name", author.getFullName()))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate("INSERT INTO authors (full_name) VALUES (:full_name)", batchParameters,
+                keyHolder, new String[]{"id"});
+
+        var keys = keyHolder.getKeyList();
+        for (int i = 0; i < newAuthors.size(); i++) {
+            newAuthors.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+        return newAuthors;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.AUTHORS_CACHE, key = "#author.id")
+    @Override
+    public Author save(Author author) {
+        if (author.getId() == 0) {
+            return insertAll(List.of(author)).get(0);
+        }
+        var queryParameters = Map.of("id", author.getId(), "full_name", author.getFullName());
+
+        int updated = jdbcTemplate.update("UPDATE authors SET full_name = :full_name WHERE id = :id", queryParameters);
+        if (updated == 0) {
+            throw new EntityNotFoundException("Author with id %d not found".formatted(author.getId()));
+        }
+        return author;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.AUTHORS_CACHE, key = "#id")
+    @Override
+    public List<Long> deleteById(long id) {
+        var queryParameters = Map.of("id", id);
+
+        jdbcTemplate.update(DELETE_BOOKS_EXTRA_GENRES, queryParameters);
+        var bookIds = jdbcTemplate.queryForList(DELETE_BOOKS, queryParameters, Long.class);
+        jdbcTemplate.update("DELETE FROM authors WHERE id = :id", queryParameters);
+        return bookIds;
+    }
+
     private static class AuthorRowMapper implements RowMapper<Author> {
 
         @Override
@@ -0,0 +1,91 @@
+package ru.otus.hw.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.models.BookChange;
+import ru.otus.hw.models.ChangeOperation;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcBookChangeRepository implements BookChangeRepository {
+
+    static final String SELECT_AFTER = """
+            SELECT seq, book_id, operation, version, changed_at
+            FROM book_changes
+            WHERE seq > :after_seq
+            ORDER BY seq
+            LIMIT :limit
+            """;
+
+    static final String SELECT_EXISTING_SEQS = """
+            SELECT book_changes.seq
+            FROM TABLE(id BIGINT = :seqs) ids
+                JOIN book_changes on book_changes.seq = ids.id
+            ORDER BY book_changes.seq
+            """;
+
+    // Удаление возвращает строку: если ее уже перенес параллельный вызов, вставлять нечего
+    private static final String DELETE_CHANGE = """
+            SELECT seq, book_id, operation, version, changed_at
+            FROM OLD TABLE (DELETE FROM book_changes WHERE seq = :seq)
+            """;
+
+    private static final String INSERT_CHANGE = """
+            INSERT INTO book_changes (book_id, operation, version, changed_at)
+            VALUES (:book_id, :operation, :version, :changed_at)
+            """;
+
+    private static final RowMapper<BookChange> BOOK_CHANGE_MAPPER = (rs, rowNum) -> new BookChange(
+            rs.getLong("seq"),
+            rs.getLong("book_id"),
+            ChangeOperation.valueOf(rs.getString("operation")),
+            rs.getLong("version"),
+            rs.getTimestamp("changed_at").toInstant());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<BookChange> findAllAfter(long afterSeq, int limit) {
+        var queryParameters = Map.of("after_seq", afterSeq, "limit", limit);
+
+        return jdbcTemplate.query(SELECT_AFTER, queryParameters, BOOK_CHANGE_MAPPER);
+    }
+
+    @Override
+    public long findLastSeq() {
+        Long lastSeq = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM book_changes", Map.of(), Long.class);
+        return lastSeq == null ? 0 : lastSeq;
+    }
+
+    @Transactional
+    @Override
+    public List<Long> moveToEnd(Collection<Long> seqs) {
+        if (seqs.isEmpty()) {
+            return List.of();
+        }
+        var existingSeqs = jdbcTemplate.queryForList(SELECT_EXISTING_SEQS,
+                Map.of("seqs", IdLookup.idArray(seqs)), Long.class);
+        List<Long> movedSeqs = new ArrayList<>();
+        for (long seq : existingSeqs) {
+            for (var change : jdbcTemplate.query(DELETE_CHANGE, Map.of("seq", seq), BOOK_CHANGE_MAPPER)) {
+                jdbcTemplate.update(INSERT_CHANGE, new MapSqlParameterSource()
+                        .addValue("book_id", change.bookId())
+                        .addValue("operation", change.operation().name())
+                        .addValue("version", change.version())
+                        .addValue("changed_at", Timestamp.from(change.changedAt())));
+                movedSeqs.add(seq);
+            }
+        }
+        return movedSeqs;
+    }
+}
@@ -1,70 +1,344 @@
 package ru.otus.hw.repositories;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.config.JdbcBatchProperties;
 import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.exceptions.OptimisticLockException;
 import ru.otus.hw.models.Author;
 import ru.otus.hw.models.Book;
 import ru.otus.hw.models.Genre;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository
 @AllArgsConstructor
 public class JdbcBookRepository implements BookRepository {
 
-    private static final RowMapper<Book> ROW_MAPPER = new BookRowMapper();
+    static final String SELECT_BOOKS = """
+            SELECT
+                books.id,
+                books.title,
+                books.author_id,
+                books.genre_id,
+                authors.full_name as `authors_full_name`,
+                genres.name as `genres_name`,
+                books.version
+            FROM books
+                LEFT JOIN authors on authors.id = books.author_id
+                LEFT JOIN genres on genres.id = books.genre_id
+            WHERE books.deleted_at IS NULL
+            """;
+
+    static final String SELECT_BY_IDS = """
+            SELECT
+                books.id,
+                books.title,
+                books.author_id,
+                books.genre_id,
+                authors.full_name as `authors_full_name`,
+                genres.name as `genres_name`,
+                books.version
+            FROM TABLE(id BIGINT = :ids) ids
+                JOIN books on books.id = ids.id
+                LEFT JOIN authors on authors.id = books.author_id
+                LEFT JOIN genres on genres.id = books.genre_id
+            WHERE books.deleted_at IS NULL
+            """;
+
+    static final String SELECT_BY_AUTHOR_ID = SELECT_BOOKS + """
+            AND books.author_id = :author_id AND books.id > :after_id
+            ORDER BY books.id
+            LIMIT :limit
+            """;
+
+    static final String SELECT_BY_GENRE_ID = SELECT_BOOKS + """
+            AND books.genre_id = :genre_id
+            ORDER BY books.id
+            LIMIT :limit
+            """;
+
+    static final String SELECT_BY_TITLE_PREFIX = SELECT_BOOKS + """
+            AND books.title LIKE :title_pattern ESCAPE '\\'
+            ORDER BY books.title, books.id
+            LIMIT :limit
+            """;
+
+    static final String SELECT_VERSION = "SELECT version FROM books WHERE id = :id AND deleted_at IS NULL";
+
+    // Пометка и постановка в очередь очистки одним атомарным запросом, повторное удаление ничего не меняет
+    static final String SOFT_DELETE = """
+            INSERT INTO book_purge_queue (book_id, deleted_at)
+            SELECT id, deleted_at FROM FINAL TABLE (
+                UPDATE books SET deleted_at = LOCALTIMESTAMP
+                WHERE id = :id AND deleted_at IS NULL
+            )
+            """;
+
+    // Удаление пакета и id удаленных строк одним запросом: книги по одному индексу idx_books_author_id
+    // или idx_books_genre_id, мягко удаленные тоже, чтобы каскад от автора или жанра их уже не трогал
+    static final String DELETE_BATCH_BY_AUTHOR_ID = """
+            SELECT id FROM OLD TABLE (
+                DELETE FROM books WHERE author_id = :author_id FETCH FIRST :limit ROWS ONLY
+            )
+            """;
+
+    static final String DELETE_BATCH_BY_GENRE_ID = """
+            SELECT id FROM OLD TABLE (
+                DELETE FROM books WHERE genre_id = :genre_id FETCH FIRST :limit ROWS ONLY
+            )
+            """;
+
+    // Пакет очистки берется по idx_book_purge_queue_deleted_at, поэтому его стоимость не зависит от размера
+    // таблицы книг
+    static final String SELECT_PURGE_BATCH = """
+            SELECT book_id FROM book_purge_queue
+            WHERE deleted_at <= LOCALTIMESTAMP
+            ORDER BY deleted_at
+            FETCH FIRST :limit ROWS ONLY
+            """;
+
+    // Удаление по массиву id: "WHERE id IN (подзапрос)" H2 перепроверяет подзапросом для каждой строки
+    private static final String PURGE_BOOKS = """
+            MERGE INTO books USING TABLE(id BIGINT = :ids) ids ON books.id = ids.id
+            WHEN MATCHED THEN DELETE
+            """;
+
+    private static final String PURGE_QUEUE = """
+            MERGE INTO book_purge_queue USING TABLE(id BIGINT = :ids) ids ON book_purge_queue.book_id = ids.id
+            WHEN MATCHED THEN DELETE
+            """;
+
+    // Дополнительные жанры сразу для всей страницы книг одним запросом по массиву id
+    static final String SELECT_EXTRA_GENRES = """
+            SELECT book_genres.book_id, genres.id, genres.name
+            FROM TABLE(id BIGINT = :ids) ids
+                JOIN book_genres on book_genres.book_id = ids.id
+                JOIN genres on genres.id = book_genres.genre_id
+            ORDER BY book_genres.book_id, genres.id
+            """;
+
+    // Потоковое чтение одним курсором: дополнительные жанры присоединяются к строке книги. Соединение
+    // идет по первичному ключу book_genres, поэтому строки книги идут подряд, а ее жанры - по возрастанию id,
+    // и порядок по books.id по-прежнему берется из индекса без сортировки
+    static final String STREAM_BOOKS = """
+            SELECT
+                books.id,
+                books.title,
+                books.author_id,
+                books.genre_id,
+                authors.full_name as `authors_full_name`,
+                genres.name as `genres_name`,
+                books.version,
+                extra_genres.id as `extra_genres_id`,
+                extra_genres.name as `extra_genres_name`
+            FROM %s
+                LEFT JOIN authors on authors.id = books.author_id
+                LEFT JOIN genres on genres.id = books.genre_id
+                LEFT JOIN book_genres on book_genres.book_id = books.id
+                LEFT JOIN genres extra_genres on extra_genres.id = book_genres.genre_id
+            WHERE books.deleted_at IS NULL
+            ORDER BY books.id
+            """;
+
+    private static final String DELETE_EXTRA_GENRES = """
+            MERGE INTO book_genres USING TABLE(id BIGINT = :ids) ids ON book_genres.book_id = ids.id
+            WHEN MATCHED THEN DELETE
+            """;
+
+    private static final String INSERT_EXTRA_GENRE = """
+            INSERT INTO book_genres (book_id, genre_id)
+            VALUES (:book_id, :genre_id)
+            """;
+
+    // Новый основной жанр книги не должен оставаться и среди дополнительных
+    static final String DELETE_MAIN_GENRE_FROM_EXTRA = """
+            DELETE FROM book_genres
+            WHERE book_id = :id AND genre_id = :genre_id
+            """;
+
+    private static final String INSERT_BOOK = """
+            INSERT INTO books (title, author_id, genre_id)
+            VALUES (:title, :author_id, :genre_id)
+            """;
+
+    private static final String UPDATE_BOOK = """
+            UPDATE books
+            SET
+                title = :title,
+                author_id = :author_id,
+                genre_id = :genre_id,
+                version = version + 1
+            WHERE id = :id AND version = :version AND deleted_at IS NULL
+            """;
+
+    // Вставка и изменение одним запросом: строка пишется, только если автор и жанр существуют
+    // и версия совпадает, а FINAL TABLE сразу возвращает сохраненную книгу с именами автора и жанра
+    private static final String UPSERT_RESULT = """
+            SELECT
+                books.id,
+                books.title,
+                books.author_id,
+                books.genre_id,
+                authors.full_name as `authors_full_name`,
+                genres.name as `genres_name`,
+                books.version
+            FROM FINAL TABLE (
+                %s
+            ) books
+                JOIN authors on authors.id = books.author_id
+                JOIN genres on genres.id = books.genre_id
+            """;
+
+    static final String UPSERT_INSERT = UPSERT_RESULT.formatted("""
+            INSERT INTO books (title, author_id, genre_id)
+                SELECT :title, authors.id, genres.id
+                FROM authors, genres
+                WHERE authors.id = :author_id AND genres.id = :genre_id""");
+
+    static final String UPSERT_UPDATE = UPSERT_RESULT.formatted("""
+            UPDATE books
+                SET
+                    title = :title,
+                    author_id = :author_id,
+                    genre_id = :genre_id,
+                    version = version + 1
+                WHERE id = :id AND version = :version AND deleted_at IS NULL
+                    AND EXISTS (SELECT 1 FROM authors WHERE id = :author_id)
+                    AND EXISTS (SELECT 1 FROM genres WHERE id = :genre_id)""");
+
+    // Сколько книг загружается одним запросом дополнительных жанров
+    static final int EXTRA_GENRES_BATCH_SIZE = 1000;
 
     private final NamedParameterJdbcTemplate jdbcTemplate;
 
+    private final JdbcBatchProperties batchProperties;
+
+    @Cacheable(cacheNames = CacheConfig.BOOKS_CACHE, unless = "#result == null")
     @Override
     public Optional<Book> findById(long id) {
         var queryParameters = Map.of("id", id);
-        String queryString = """
-                SELECT
-                    books.id,
-                    books.title,
-                    books.author_id,
-                    books.genre_id,
-                    authors.full_name as `authors_full_name`,
-                    genres.name as `genres_name`
-                FROM books
-                    LEFT JOIN authors on authors.id = books.author_id
-                    LEFT JOIN genres on genres.id = books.genre_id
-                WHERE books.id = :id
-                """;
+        String queryString = SELECT_BOOKS + "AND books.id = :id";
 
-        List<Book> books = jdbcTemplate.query(queryString, queryParameters, ROW_MAPPER);
+        List<Book> books = jdbcTemplate.query(queryString, queryParameters, new BookRowMapper());
 
-        return books.stream().findFirst();
+        return withExtraGenres(books).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Long> findVersionById(long id) {
+        var queryParameters = Map.of("id", id);
+
+        return jdbcTemplate.queryForList(SELECT_VERSION, queryParameters, Long.class)
+                .stream().findFirst();
     }
 
     @Override
     public List<Book> findAll() {
-        String queryString = """
-                SELECT
-                    books.id,
-                    books.title,
-                    books.author_id,
-                    books.genre_id,
-                    authors.full_name as `authors_full_name`,
-                    genres.name as `genres_name`
-                FROM books
-                    LEFT JOIN authors on authors.id = books.author_id
-                    LEFT JOIN genres on genres.id = books.genre_id
+        return withExtraGenres(jdbcTemplate.query(SELECT_BOOKS, new BookRowMapper()));
+    }
+
+    @Override
+    public List<Book> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var queryParameters = Map.of("ids", IdLookup.idArray(ids));
+
+        var books = jdbcTemplate.query(SELECT_BY_IDS, queryParameters, new BookRowMapper());
+        return IdLookup.inIdOrder(ids, withExtraGenres(books), Book::getId);
+    }
+
+    @Override
+    public List<Book> findAllAfter(long afterId, int limit) {
+        var queryParameters = Map.of("after_id", afterId, "limit", limit);
+        String queryString = SELECT_BOOKS + """
+                AND books.id > :after_id
+                ORDER BY books.id
+                LIMIT :limit
                 """;
 
-        return jdbcTemplate.query(queryString, ROW_MAPPER);
+        return withExtraGenres(jdbcTemplate.query(queryString, queryParameters, new BookRowMapper()));
+    }
+
+    @Override
+    public List<Book> findAllByAuthorId(long authorId, int limit) {
+        return findAllByAuthorId(authorId, 0, limit);
+    }
+
+    @Override
+    public List<Book> findAllByAuthorId(long authorId, long afterId, int limit) {
+        var queryParameters = Map.of("author_id", authorId, "after_id", afterId, "limit", limit);
+
+        return withExtraGenres(jdbcTemplate.query(SELECT_BY_AUTHOR_ID, queryParameters, new BookRowMapper()));
+    }
+
+    @Override
+    public List<Book> findAllByGenreId(long genreId, int limit) {
+        var queryParameters = Map.of("genre_id", genreId, "limit", limit);
+
+        return withExtraGenres(jdbcTemplate.query(SELECT_BY_GENRE_ID, queryParameters, new BookRowMapper()));
+    }
+
+    @Override
+    public List<Book> findAllByTitlePrefix(String titlePrefix, int limit) {
+        var queryParameters = Map.of("title_pattern", toPrefixPattern(titlePrefix), "limit", limit);
+
+        return withExtraGenres(jdbcTemplate.query(SELECT_BY_TITLE_PREFIX, queryParameters, new BookRowMapper()));
+    }
+
+    @Override
+    public Stream<Book> streamAll() {
+        //Курсор только вперед, размер выборки задается spring.jdbc.template.fetch-size
+        String queryString = STREAM_BOOKS.formatted("books");
+
+        return groupExtraGenres(jdbcTemplate.queryForStream(queryString, Map.of(), new StreamRowMapper()));
+    }
+
+    @Override
+    public Stream<Book> streamAll(long offset, int limit) {
+        var queryParameters = Map.of("offset", offset, "limit", limit);
+        //Страница отсчитывается по книгам, а не по строкам с дополнительными жанрами
+        String queryString = STREAM_BOOKS.formatted("""
+                (
+                    SELECT * FROM books
+                    WHERE deleted_at IS NULL
+                    ORDER BY id
+                    LIMIT :limit OFFSET :offset
+                ) books""");
+
+        return groupExtraGenres(jdbcTemplate.queryForStream(queryString, queryParameters, new StreamRowMapper()));
+    }
+
+    @Override
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE deleted_at IS NULL", Map.of(),
+                Long.class);
+        return count == null ? 0 : count;
     }
 
+    @Transactional
     @Override
     public Book save(Book book) {
         if (book.getId() == 0) {
@@ -73,27 +347,149 @@ public class JdbcBookRepository implements BookRepository {
         return update(book);
     }
 
+    @Transactional
+    @Override
+    public Optional<Book> upsert(Book book) {
+        var queryString = book.getId() == 0 ? UPSERT_INSERT : UPSERT_UPDATE;
+        var queryParameters = bookParameters(book);
+
+        var books = jdbcTemplate.query(queryString, queryParameters, new BookRowMapper());
+        if (book.getId() != 0 && !books.isEmpty()) {
+            jdbcTemplate.update(DELETE_MAIN_GENRE_FROM_EXTRA, queryParameters);
+        }
+        return withExtraGenres(books).stream().findFirst();
+    }
+
+    @Override
+    public void replaceExtraGenres(long bookId, Collection<Long> genreIds) {
+        jdbcTemplate.update(DELETE_EXTRA_GENRES, Map.of("ids", IdLookup.idArray(List.of(bookId))));
+        var batchParameters = genreIds.stream()
+                .map(genreId -> new MapSqlParameterSource()
+                        .addValue("book_id", bookId)
+                        .addValue("genre_id", genreId))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(INSERT_EXTRA_GENRE, batchParameters);
+    }
+
+    @Transactional
+    @Override
+    public List<Book> saveAll(Collection<Book> books) {
+        var newBooks = books.stream().filter(book -> book.getId() == 0).toList();
+        var existingBooks = books.stream().filter(book -> book.getId() != 0).toList();
+
+        int batchSize = Math.max(1, batchProperties.getSize());
+        partition(newBooks, batchSize).forEach(this::batchInsert);
+        partition(existingBooks, batchSize).forEach(this::batchUpdate);
+
+        return List.copyOf(books);
+    }
+
+    @Transactional
     @Override
     public void deleteById(long id) {
         var queryParameters = Map.of("id", id);
 
         jdbcTemplate.update("DELETE FROM books WHERE id = :id", queryParameters);
+        jdbcTemplate.update("DELETE FROM book_genres WHERE book_id = :id", queryParameters);
+    }
+
+    @Override
+    public void softDeleteById(long id) {
+        var queryParameters = Map.of("id", id);
+
+        jdbcTemplate.update(SOFT_DELETE, queryParameters);
+    }
+
+    @Transactional
+    @Override
+    public List<Long> deleteBatchByAuthorId(long authorId, int limit) {
+        var queryParameters = Map.of("author_id", authorId, "limit", limit);
+
+        return deleteExtraGenres(jdbcTemplate.queryForList(DELETE_BATCH_BY_AUTHOR_ID, queryParameters, Long.class));
+    }
+
+    @Transactional
+    @Override
+    public List<Long> deleteBatchByGenreId(long genreId, int limit) {
+        var queryParameters = Map.of("genre_id", genreId, "limit", limit);
+
+        return deleteExtraGenres(jdbcTemplate.queryForList(DELETE_BATCH_BY_GENRE_ID, queryParameters, Long.class));
+    }
+
+    @Transactional
+    @Override
+    public int purgeDeleted(int limit) {
+        var ids = jdbcTemplate.queryForList(SELECT_PURGE_BATCH, Map.of("limit", limit), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        //Книги, их жанры и очередь удаляются в одной транзакции: прерванная очистка не оставит
+        //ни строк book_genres без книги, ни строк очереди для уже удаленных книг
+        var queryParameters = Map.of("ids", IdLookup.idArray(ids));
+        jdbcTemplate.update(PURGE_BOOKS, queryParameters);
+        jdbcTemplate.update(DELETE_EXTRA_GENRES, queryParameters);
+        jdbcTemplate.update(PURGE_QUEUE, queryParameters);
+        return ids.size();
+    }
+
+    @Override
+    public long countDeleted() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_purge_queue", Map.of(), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private List<Long> deleteExtraGenres(List<Long> bookIds) {
+        if (!bookIds.isEmpty()) {
+            jdbcTemplate.update(DELETE_EXTRA_GENRES, Map.of("ids", IdLookup.idArray(bookIds)));
+        }
+        return bookIds;
+    }
+
+    //Дополнительные жанры подгружаются вторым запросом на пакет книг и раскладываются по книгам в памяти,
+    //вместо запроса на каждую книгу или соединения, повторяющего строку книги для каждого жанра
+    private List<Book> withExtraGenres(List<Book> books) {
+        for (var page : partition(books, EXTRA_GENRES_BATCH_SIZE)) {
+            var handler = new ExtraGenresHandler();
+            page.forEach(handler::addBook);
+            var queryParameters = Map.of("ids", IdLookup.idArray(handler.booksById.keySet()));
+
+            jdbcTemplate.query(SELECT_EXTRA_GENRES, queryParameters, handler);
+        }
+        return books;
+    }
+
+    //Строки одной книги идут в курсоре подряд, StreamRowMapper возвращает для них один и тот же объект,
+    //поэтому книга отдается дальше только когда прочитана строка следующей книги
+    private static Stream<Book> groupExtraGenres(Stream<Book> rows) {
+        var rowIterator = rows.iterator();
+        var books = new Spliterators.AbstractSpliterator<Book>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            private Book pending;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Book> action) {
+                var book = pending != null ? pending : nextRow();
+                if (book == null) {
+                    return false;
+                }
+                do {
+                    pending = nextRow();
+                } while (pending == book);
+                action.accept(book);
+                return true;
+            }
+
+            private Book nextRow() {
+                return rowIterator.hasNext() ? rowIterator.next() : null;
+            }
+        };
+        return StreamSupport.stream(books, false).onClose(rows::close);
     }
 
     private Book insert(Book book) {
         var keyHolder = new GeneratedKeyHolder();
 
-        var queryParameters = Map.of(
-                "title", book.getTitle(),
-                "author_id", book.getAuthor().getId(),
-                "genre_id", book.getGenre().getId()
-        );
-        String queryString = """
-                INSERT INTO books (title, author_id, genre_id)
-                VALUES (:title, :author_id, :genre_id)
-                """;
-
-        jdbcTemplate.update(queryString, new MapSqlParameterSource(queryParameters), keyHolder);
+        jdbcTemplate.update(INSERT_BOOK, bookParameters(book), keyHolder, new String[]{"id"});
         //...
         //Так и не  понял что тут от меня ожидалось?
         //noinspection DataFlowIssue
@@ -102,39 +498,211 @@ public class JdbcBookRepository implements BookRepository {
     }
 
     private Book update(Book book) {
-        var queryParameters = Map.of(
-                "id", book.getId(),
-                "title", book.getTitle(),
-                "author_id", book.getAuthor().getId(),
-                "genre_id", book.getGenre().getId()
-        );
-        String queryString = """
-                UPDATE books
-                SET
-                    title = :title,
-                    author_id = :author_id,
-                    genre_id = :genre_id
-                WHERE id = :id
-                """;
-
-        int updatedRows = jdbcTemplate.update(queryString, queryParameters);
+        var queryParameters = bookParameters(book);
+        int updatedRows = jdbcTemplate.update(UPDATE_BOOK, queryParameters);
         if (updatedRows == 0) {
-            throw new EntityNotFoundException(String.format("Book with id = [%s] not found", book.getId()));
+            throw updateFailure(book);
         }
+        jdbcTemplate.update(DELETE_MAIN_GENRE_FROM_EXTRA, queryParameters);
+        book.setVersion(book.getVersion() + 1);
         return book;
     }
 
+    private void batchInsert(List<Book> books) {
+        var keyHolder = new GeneratedKeyHolder();
+        var batchParameters = books.stream()
+                .map(JdbcBookRepository::bookParameters)
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(INSERT_BOOK, batchParameters, keyHolder, new String[]{"id"});
+
+        var keys = keyHolder.getKeyList();
+        for (int i = 0; i < books.size(); i++) {
+            books.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+    }
+
+    private void batchUpdate(List<Book> books) {
+        var batchParameters = books.stream()
+                .map(JdbcBookRepository::bookParameters)
+                .toArray(SqlParameterSource[]::new);
+
+        int[] updatedRows = jdbcTemplate.batchUpdate(UPDATE_BOOK, batchParameters);
+        for (int i = 0; i < updatedRows.length; i++) {
+            if (updatedRows[i] == 0) {
+                throw updateFailure(books.get(i));
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_MAIN_GENRE_FROM_EXTRA, batchParameters);
+        books.forEach(book -> book.setVersion(book.getVersion() + 1));
+    }
+
+    //Вызывается только когда изменение не затронуло строку: книги нет или ее уже изменили
+    private RuntimeException updateFailure(Book book) {
+        return findVersionById(book.getId())
+                .<RuntimeException>map(actualVersion ->
+                        OptimisticLockException.bookChanged(book.getId(), book.getVersion(), actualVersion))
+                .orElseGet(() -> new EntityNotFoundException(
+                        String.format("Book with id = [%s] not found", book.getId())));
+    }
+
+
+    private static <T> List<List<T>> partition(List<T> items, int batchSize) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            batches.add(items.subList(from, Math.min(from + batchSize, items.size())));
+        }
+        return batches;
+    }
+
+    static String toPrefixPattern(String prefix) {
+        //Экранируем спецсимволы LIKE, чтобы префикс искался буквально и по индексу
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+
+    private static MapSqlParameterSource bookParameters(Book book) {
+        return new MapSqlParameterSource()
+                .addValue("id", book.getId())
+                .addValue("title", book.getTitle())
+                .addValue("author_id", book.getAuthor().getId())
+                .addValue("genre_id", book.getGenre().getId())
+                .addValue("version", book.getVersion());
+    }
+
+    //Раскладывает строки SELECT_EXTRA_GENRES по книгам, один объект на каждый id жанра,
+    //в том числе общий с основными жанрами книг
+    private static class ExtraGenresHandler implements RowCallbackHandler {
+
+        private final Map<Long, Book> booksById = new HashMap<>();
+
+        private final Map<Long, Genre> genres = new HashMap<>();
+
+        private final Map<Long, List<Genre>> extraGenres = new HashMap<>();
+
+        void addBook(Book book) {
+            booksById.put(book.getId(), book);
+            if (book.getGenre() != null) {
+                genres.putIfAbsent(book.getGenre().getId(), book.getGenre());
+            }
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long bookId = rs.getLong(1);
+            long genreId = rs.getLong(2);
+            var genre = genres.get(genreId);
+            if (genre == null) {
+                genre = new Genre(genreId, rs.getString(3));
+                genres.put(genreId, genre);
+            }
+            var bookGenres = extraGenres.get(bookId);
+            if (bookGenres == null) {
+                bookGenres = new ArrayList<>();
+                extraGenres.put(bookId, bookGenres);
+                booksById.get(bookId).setExtraGenres(bookGenres);
+            }
+            bookGenres.add(genre);
+        }
+    }
+
+    //Экземпляр создается на каждый запрос: авторы и жанры повторяются во многих строках результата,
+    //поэтому на каждый id создается один объект, а имя читается только при первой встрече
     private static class BookRowMapper implements RowMapper<Book> {
 
+        // Номера колонок в SELECT_BOOKS, UPSERT_RESULT и STREAM_BOOKS
+        private static final int ID = 1;
+
+        private static final int TITLE = 2;
+
+        private static final int AUTHOR_ID = 3;
+
+        private static final int GENRE_ID = 4;
+
+        private static final int AUTHOR_FULL_NAME = 5;
+
+        private static final int GENRE_NAME = 6;
+
+        private static final int VERSION = 7;
+
+        private final Map<Long, Author> authors = new HashMap<>();
+
+        private final Map<Long, Genre> genres = new HashMap<>();
+
+        @Override
+        public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
+            var genre = mapGenre(rs, GENRE_ID, GENRE_NAME);
+            return new Book(rs.getLong(ID), rs.getString(TITLE), mapAuthor(rs), genre, rs.getLong(VERSION));
+        }
+
+        private Author mapAuthor(ResultSet rs) throws SQLException {
+            long authorId = rs.getLong(AUTHOR_ID);
+            if (authorId <= 0) {
+                return null;
+            }
+            var author = authors.get(authorId);
+            if (author == null) {
+                author = new Author(authorId, rs.getString(AUTHOR_FULL_NAME));
+                authors.put(authorId, author);
+            }
+            return author;
+        }
+
+        void clear() {
+            authors.clear();
+            genres.clear();
+        }
+
+        Genre mapGenre(ResultSet rs, int idColumn, int nameColumn) throws SQLException {
+            long genreId = rs.getLong(idColumn);
+            if (genreId <= 0) {
+                return null;
+            }
+            var genre = genres.get(genreId);
+            if (genre == null) {
+                genre = new Genre(genreId, rs.getString(nameColumn));
+                genres.put(genreId, genre);
+            }
+            return genre;
+        }
+    }
+
+    //Строки STREAM_BOOKS: для строк одной книги возвращается тот же объект, к которому добавляется
+    //очередной дополнительный жанр. Авторы и жанры переиспользуются только в пределах порции книг,
+    //иначе при чтении всей таблицы словари BookRowMapper росли бы с числом разных авторов и жанров
+    private static class StreamRowMapper implements RowMapper<Book> {
+
+        private static final int EXTRA_GENRE_ID = 8;
+
+        private static final int EXTRA_GENRE_NAME = 9;
+
+        // Столько же, сколько spring.jdbc.template.fetch-size в application.yml
+        private static final int INTERN_CHUNK_BOOKS = 1000;
+
+        private final BookRowMapper bookRowMapper = new BookRowMapper();
+
+        private Book lastBook;
+
+        private int chunkBooks;
+
         @Override
         public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Author author = rs.getLong("author_id") > 0
-                    ? new Author(rs.getLong("author_id"), rs.getString("authors_full_name"))
-                    : null;
-            Genre genre = rs.getLong("genre_id") > 0
-                    ? new Genre(rs.getLong("genre_id"), rs.getString("genres_name"))
-                    : null;
-            return new Book(rs.getLong("id"), rs.getString("title"), author, genre);
+            if (lastBook == null || lastBook.getId() != rs.getLong(BookRowMapper.ID)) {
+                if (++chunkBooks > INTERN_CHUNK_BOOKS) {
+                    bookRowMapper.clear();
+                    chunkBooks = 1;
+                }
+                lastBook = bookRowMapper.mapRow(rs, rowNum);
+            }
+            var extraGenre = bookRowMapper.mapGenre(rs, EXTRA_GENRE_ID, EXTRA_GENRE_NAME);
+            if (extraGenre != null) {
+                if (lastBook.getExtraGenres().isEmpty()) {
+                    lastBook.setExtraGenres(new ArrayList<>());
+                }
+                lastBook.getExtraGenres().add(extraGenre);
+            }
+            return lastBook;
         }
     }
 }
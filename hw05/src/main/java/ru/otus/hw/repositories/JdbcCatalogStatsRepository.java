@@ -0,0 +1,134 @@
+package ru.otus.hw.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.otus.hw.config.StatsProperties;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.AuthorBookCount;
+import ru.otus.hw.models.CatalogTotals;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.models.GenreBookCount;
+
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcCatalogStatsRepository implements CatalogStatsRepository {
+
+    //Группировка идет по индексам idx_books_author_id/idx_books_genre_id, deleted_at проверяется по строке книги
+    static final String COUNT_BY_AUTHOR = """
+            SELECT authors.id, authors.full_name, COALESCE(counts.books, 0) AS books
+            FROM authors
+                LEFT JOIN (
+                    SELECT author_id, COUNT(*) AS books FROM books WHERE deleted_at IS NULL GROUP BY author_id
+                ) counts on counts.author_id = authors.id
+            ORDER BY authors.id
+            LIMIT :limit
+            """;
+
+    static final String COUNT_BY_GENRE = """
+            SELECT genres.id, genres.name, COALESCE(counts.books, 0) AS books
+            FROM genres
+                LEFT JOIN (
+                    SELECT genre_id, COUNT(*) AS books FROM books WHERE deleted_at IS NULL GROUP BY genre_id
+                ) counts on counts.genre_id = genres.id
+            ORDER BY genres.id
+            LIMIT :limit
+            """;
+
+    static final String TOP_AUTHORS = """
+            SELECT authors.id, authors.full_name, counts.books
+            FROM (
+                SELECT author_id, COUNT(*) AS books FROM books
+                WHERE deleted_at IS NULL
+                GROUP BY author_id
+                ORDER BY books DESC, author_id
+                LIMIT :limit
+            ) counts
+                JOIN authors on authors.id = counts.author_id
+            ORDER BY counts.books DESC, authors.id
+            """;
+
+    static final String COUNT_BY_AUTHOR_FROM_COUNTS = """
+            SELECT authors.id, authors.full_name, COALESCE(book_counts.books, 0) AS books
+            FROM authors
+                LEFT JOIN book_counts on book_counts.dimension = 'AUTHOR' AND book_counts.ref_id = authors.id
+            ORDER BY authors.id
+            LIMIT :limit
+            """;
+
+    static final String COUNT_BY_GENRE_FROM_COUNTS = """
+            SELECT genres.id, genres.name, COALESCE(book_counts.books, 0) AS books
+            FROM genres
+                LEFT JOIN book_counts on book_counts.dimension = 'GENRE' AND book_counts.ref_id = genres.id
+            ORDER BY genres.id
+            LIMIT :limit
+            """;
+
+    //Индекс idx_book_counts_books: первые N строк без сортировки всей таблицы
+    static final String TOP_AUTHORS_FROM_COUNTS = """
+            SELECT authors.id, authors.full_name, book_counts.books
+            FROM book_counts
+                JOIN authors on authors.id = book_counts.ref_id
+            WHERE book_counts.dimension = 'AUTHOR' AND book_counts.books > 0
+            ORDER BY book_counts.books DESC, authors.id
+            LIMIT :limit
+            """;
+
+    private static final String COUNT_TOTALS = """
+            SELECT
+                (SELECT COUNT(*) FROM books WHERE deleted_at IS NULL) AS books,
+                (SELECT COUNT(*) FROM authors) AS authors,
+                (SELECT COUNT(*) FROM genres) AS genres
+            """;
+
+    private static final String COUNT_TOTALS_FROM_COUNTS = """
+            SELECT
+                COALESCE((SELECT books FROM book_counts WHERE dimension = 'TOTAL' AND ref_id = 0), 0) AS books,
+                (SELECT COUNT(*) FROM authors) AS authors,
+                (SELECT COUNT(*) FROM genres) AS genres
+            """;
+
+    private static final RowMapper<AuthorBookCount> AUTHOR_COUNT_MAPPER = (rs, rowNum) ->
+            new AuthorBookCount(new Author(rs.getLong(1), rs.getString(2)), rs.getLong(3));
+
+    private static final RowMapper<GenreBookCount> GENRE_COUNT_MAPPER = (rs, rowNum) ->
+            new GenreBookCount(new Genre(rs.getLong(1), rs.getString(2)), rs.getLong(3));
+
+    private static final RowMapper<CatalogTotals> TOTALS_MAPPER = (rs, rowNum) ->
+            new CatalogTotals(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final StatsProperties statsProperties;
+
+    @Override
+    public List<AuthorBookCount> countBooksByAuthor(int limit) {
+        var queryParameters = Map.of("limit", limit);
+        String queryString = statsProperties.isCountsTable() ? COUNT_BY_AUTHOR_FROM_COUNTS : COUNT_BY_AUTHOR;
+        return jdbcTemplate.query(queryString, queryParameters, AUTHOR_COUNT_MAPPER);
+    }
+
+    @Override
+    public List<GenreBookCount> countBooksByGenre(int limit) {
+        var queryParameters = Map.of("limit", limit);
+        String queryString = statsProperties.isCountsTable() ? COUNT_BY_GENRE_FROM_COUNTS : COUNT_BY_GENRE;
+        return jdbcTemplate.query(queryString, queryParameters, GENRE_COUNT_MAPPER);
+    }
+
+    @Override
+    public List<AuthorBookCount> findTopAuthors(int limit) {
+        var queryParameters = Map.of("limit", limit);
+        String queryString = statsProperties.isCountsTable() ? TOP_AUTHORS_FROM_COUNTS : TOP_AUTHORS;
+        return jdbcTemplate.query(queryString, queryParameters, AUTHOR_COUNT_MAPPER);
+    }
+
+    @Override
+    public CatalogTotals countTotals() {
+        String queryString = statsProperties.isCountsTable() ? COUNT_TOTALS_FROM_COUNTS : COUNT_TOTALS;
+        return jdbcTemplate.queryForObject(queryString, Map.of(), TOTALS_MAPPER);
+    }
+}
@@ -1,13 +1,22 @@
 package ru.otus.hw.repositories;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.exceptions.EntityNotFoundException;
 import ru.otus.hw.models.Genre;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -16,6 +25,20 @@ import java.util.Optional;
 @AllArgsConstructor
 public class JdbcGenreRepository implements GenreRepository {
 
+    // Дополнительные жанры книг, удаляемых вместе с записью: у book_genres нет внешнего ключа на books,
+    // поэтому без этого их строки остались бы в таблице
+    private static final String DELETE_BOOKS_EXTRA_GENRES = """
+            MERGE INTO book_genres USING (SELECT id FROM books WHERE genre_id = :id) ids
+                ON book_genres.book_id = ids.id
+            WHEN MATCHED THEN DELETE
+            """;
+
+    // Книги удаляются явно, а не каскадом внешнего ключа, чтобы вернуть их id: вызывающий убирает их
+    // из поискового индекса и кэша
+    private static final String DELETE_BOOKS = """
+            SELECT id FROM OLD TABLE (DELETE FROM books WHERE genre_id = :id)
+            """;
+
     private static final RowMapper<Genre> ROW_MAPPER = new GenreRowMapper();
 
     private final NamedParameterJdbcTemplate jdbcTemplate;
@@ -25,6 +48,7 @@ public class JdbcGenreRepository implements GenreRepository {
         return jdbcTemplate.query("SELECT id, name FROM genres", ROW_MAPPER);
     }
 
+    @Cacheable(cacheNames = CacheConfig.GENRES_CACHE, unless = "#result == null")
     @Override
     public Optional<Genre> findById(long id) {
         var queryParameters = Map.of("id", id);
@@ -35,6 +59,67 @@ public class JdbcGenreRepository implements GenreRepository {
         return genres.stream().findAny();
     }
 
+    @Override
+    public List<Genre> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var queryParameters = Map.of("ids", IdLookup.idArray(ids));
+        String queryString = """
+                SELECT genres.id, genres.name
+                FROM TABLE(id BIGINT = :ids) ids
+                    JOIN genres on genres.id = ids.id
+                """;
+
+        var genres = jdbcTemplate.query(queryString, queryParameters, ROW_MAPPER);
+        return IdLookup.inIdOrder(ids, genres, Genre::getId);
+    }
+
+    @Override
+    public List<Genre> insertAll(Collection<Genre> genres) {
+        var newGenres = List.copyOf(genres);
+        var keyHolder = new GeneratedKeyHolder();
+        var batchParameters = newGenres.stream()
+                .map(genre -> new MapSqlParameterSource("name", genre.getName()))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate("INSERT INTO genres (name) VALUES (:name)", batchParameters,
+                keyHolder, new String[]{"id"});
+
+        var keys = keyHolder.getKeyList();
+        for (int i = 0; i < newGenres.size(); i++) {
+            newGenres.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+        return newGenres;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.GENRES_CACHE, key = "#genre.id")
+    @Override
+    public Genre save(Genre genre) {
+        if (genre.getId() == 0) {
+            return insertAll(List.of(genre)).get(0);
+        }
+        var queryParameters = Map.of("id", genre.getId(), "name", genre.getName());
+
+        int updated = jdbcTemplate.update("UPDATE genres SET name = :name WHERE id = :id", queryParameters);
+        if (updated == 0) {
+            throw new EntityNotFoundException("Genre with id %d not found".formatted(genre.getId()));
+        }
+        return genre;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.GENRES_CACHE, key = "#id")
+    @Override
+    public List<Long> deleteById(long id) {
+        var queryParameters = Map.of("id", id);
+
+        jdbcTemplate.update(DELETE_BOOKS_EXTRA_GENRES, queryParameters);
+        var bookIds = jdbcTemplate.queryForList(DELETE_BOOKS, queryParameters, Long.class);
+        jdbcTemplate.update("DELETE FROM genres WHERE id = :id", queryParameters);
+        return bookIds;
+    }
+
     private static class GenreRowMapper implements RowMapper<Genre> {
 
         @Override
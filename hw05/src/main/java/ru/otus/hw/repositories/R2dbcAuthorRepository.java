@@ -0,0 +1,36 @@
+package ru.otus.hw.repositories;
+
+import io.r2dbc.spi.Readable;
+import lombok.AllArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.hw.models.Author;
+
+@Repository
+@AllArgsConstructor
+public class R2dbcAuthorRepository implements ReactiveAuthorRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Author> findAll() {
+        return databaseClient.sql("SELECT id, full_name FROM authors")
+                .map(R2dbcAuthorRepository::mapRow)
+                .all();
+    }
+
+    @Override
+    public Mono<Author> findById(long id) {
+        return databaseClient.sql("SELECT id, full_name FROM authors WHERE id = :id")
+                .bind("id", id)
+                .map(R2dbcAuthorRepository::mapRow)
+                .one();
+    }
+
+    private static Author mapRow(Readable row) {
+        //noinspection DataFlowIssue
+        return new Author(row.get("id", Long.class), row.get("full_name", String.class));
+    }
+}
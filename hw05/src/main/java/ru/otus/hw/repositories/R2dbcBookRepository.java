@@ -0,0 +1,162 @@
+package ru.otus.hw.repositories;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Repository
+public class R2dbcBookRepository implements ReactiveBookRepository {
+
+    private final DatabaseClient databaseClient;
+
+    // Изменение книги и удаление ее нового основного жанра из дополнительных - одна транзакция
+    private final TransactionalOperator transactionalOperator;
+
+    public R2dbcBookRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = TransactionalOperator.create(
+                new R2dbcTransactionManager(databaseClient.getConnectionFactory()));
+    }
+
+    @Override
+    public Mono<Book> findById(long id) {
+        return databaseClient.sql(JdbcBookRepository.SELECT_BOOKS + "AND books.id = :id")
+                .bind("id", id)
+                .map(R2dbcBookRepository::mapRow)
+                .one()
+                .flatMap(this::withExtraGenres);
+    }
+
+    @Override
+    public Mono<Long> findVersionById(long id) {
+        return databaseClient.sql(JdbcBookRepository.SELECT_VERSION)
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    //Страницы по id, каждая - запрос книг и запрос их дополнительных жанров. Курсор по всем книгам
+    //держал бы соединение, пока для жанров страницы берется второе, и параллельные выдачи могли бы
+    //занять весь пул. Следующая страница читается, когда подписчик разобрал предыдущую
+    @Override
+    public Flux<Book> findAll() {
+        return findPage(0)
+                .expand(page -> page.size() < JdbcBookRepository.EXTRA_GENRES_BATCH_SIZE
+                        ? Mono.empty()
+                        : findPage(page.get(page.size() - 1).getId()))
+                .concatMapIterable(Function.identity());
+    }
+
+    @Override
+    public Mono<Book> upsert(Book book) {
+        var spec = book.getId() == 0
+                ? databaseClient.sql(JdbcBookRepository.UPSERT_INSERT)
+                : databaseClient.sql(JdbcBookRepository.UPSERT_UPDATE)
+                        .bind("id", book.getId())
+                        .bind("version", book.getVersion());
+        var saved = spec.bind("title", book.getTitle())
+                .bind("author_id", book.getAuthor().getId())
+                .bind("genre_id", book.getGenre().getId())
+                .map(R2dbcBookRepository::mapRow)
+                .one();
+        if (book.getId() != 0) {
+            saved = saved.flatMap(savedBook -> databaseClient.sql(JdbcBookRepository.DELETE_MAIN_GENRE_FROM_EXTRA)
+                    .bind("id", savedBook.getId())
+                    .bind("genre_id", savedBook.getGenre().getId())
+                    .then()
+                    .thenReturn(savedBook));
+        }
+        return saved.flatMap(this::withExtraGenres)
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Void> deleteById(long id) {
+        return databaseClient.sql("DELETE FROM books WHERE id = :id")
+                .bind("id", id)
+                .then()
+                .then(databaseClient.sql("DELETE FROM book_genres WHERE book_id = :id")
+                        .bind("id", id)
+                        .then())
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Void> softDeleteById(long id) {
+        return databaseClient.sql(JdbcBookRepository.SOFT_DELETE)
+                .bind("id", id)
+                .then();
+    }
+
+    private Mono<List<Book>> findPage(long afterId) {
+        return databaseClient.sql(JdbcBookRepository.SELECT_BOOKS + """
+                        AND books.id > :after_id
+                        ORDER BY books.id
+                        LIMIT :limit
+                        """)
+                .bind("after_id", afterId)
+                .bind("limit", JdbcBookRepository.EXTRA_GENRES_BATCH_SIZE)
+                .map(R2dbcBookRepository::mapRow)
+                .all()
+                .collectList()
+                .flatMap(this::withExtraGenres);
+    }
+
+    private Mono<Book> withExtraGenres(Book book) {
+        return withExtraGenres(List.of(book)).thenReturn(book);
+    }
+
+    //Как JdbcBookRepository.withExtraGenres: один запрос на страницу книг, жанры раскладываются в памяти
+    private Mono<List<Book>> withExtraGenres(List<Book> books) {
+        if (books.isEmpty()) {
+            return Mono.just(books);
+        }
+        Map<Long, Book> booksById = new HashMap<>();
+        Map<Long, Genre> genres = new HashMap<>();
+        books.forEach(book -> booksById.put(book.getId(), book));
+        return databaseClient.sql(JdbcBookRepository.SELECT_EXTRA_GENRES)
+                .bind("ids", booksById.keySet().toArray(Long[]::new))
+                .map(row -> new ExtraGenreRow(row.get(0, Long.class), row.get(1, Long.class),
+                        row.get(2, String.class)))
+                .all()
+                .doOnNext(row -> {
+                    var genre = genres.computeIfAbsent(row.genreId(), id -> new Genre(id, row.genreName()));
+                    var book = booksById.get(row.bookId());
+                    if (book.getExtraGenres().isEmpty()) {
+                        book.setExtraGenres(new ArrayList<>());
+                    }
+                    book.getExtraGenres().add(genre);
+                })
+                .then(Mono.just(books));
+    }
+
+    private static Book mapRow(Readable row) {
+        Long authorId = row.get("author_id", Long.class);
+        Long genreId = row.get("genre_id", Long.class);
+        Author author = authorId != null && authorId > 0
+                ? new Author(authorId, row.get("authors_full_name", String.class))
+                : null;
+        Genre genre = genreId != null && genreId > 0
+                ? new Genre(genreId, row.get("genres_name", String.class))
+                : null;
+        //noinspection DataFlowIssue
+        return new Book(row.get("id", Long.class), row.get("title", String.class), author, genre,
+                row.get("version", Long.class));
+    }
+
+    private record ExtraGenreRow(long bookId, long genreId, String genreName) {
+    }
+}
@@ -0,0 +1,36 @@
+package ru.otus.hw.repositories;
+
+import io.r2dbc.spi.Readable;
+import lombok.AllArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.hw.models.Genre;
+
+@Repository
+@AllArgsConstructor
+public class R2dbcGenreRepository implements ReactiveGenreRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Genre> findAll() {
+        return databaseClient.sql("SELECT id, name FROM genres")
+                .map(R2dbcGenreRepository::mapRow)
+                .all();
+    }
+
+    @Override
+    public Mono<Genre> findById(long id) {
+        return databaseClient.sql("SELECT id, name FROM genres WHERE id = :id")
+                .bind("id", id)
+                .map(R2dbcGenreRepository::mapRow)
+                .one();
+    }
+
+    private static Genre mapRow(Readable row) {
+        //noinspection DataFlowIssue
+        return new Genre(row.get("id", Long.class), row.get("name", String.class));
+    }
+}
@@ -0,0 +1,11 @@
+package ru.otus.hw.repositories;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.hw.models.Author;
+
+public interface ReactiveAuthorRepository {
+    Flux<Author> findAll();
+
+    Mono<Author> findById(long id);
+}
@@ -0,0 +1,20 @@
+package ru.otus.hw.repositories;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.hw.models.Book;
+
+public interface ReactiveBookRepository {
+    Mono<Book> findById(long id);
+
+    Mono<Long> findVersionById(long id);
+
+    Flux<Book> findAll();
+
+    // Пустой результат, если нет автора, жанра, изменяемой книги или ее версия уже другая
+    Mono<Book> upsert(Book book);
+
+    Mono<Void> deleteById(long id);
+
+    Mono<Void> softDeleteById(long id);
+}
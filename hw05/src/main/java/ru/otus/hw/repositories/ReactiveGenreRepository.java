@@ -0,0 +1,11 @@
+package ru.otus.hw.repositories;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.hw.models.Genre;
+
+public interface ReactiveGenreRepository {
+    Flux<Genre> findAll();
+
+    Mono<Genre> findById(long id);
+}
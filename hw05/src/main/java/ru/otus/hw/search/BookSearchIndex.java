@@ -0,0 +1,204 @@
+package ru.otus.hw.search;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.hw.models.Book;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Component
+public class BookSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    // Совпадение в названии весит больше, чем в имени автора
+    private static final int TITLE_WEIGHT = 2;
+
+    private static final int AUTHOR_WEIGHT = 1;
+
+    private static final Comparator<SearchHit> RANKING = Comparator.comparingDouble(SearchHit::score).reversed()
+            .thenComparingLong(SearchHit::bookId);
+
+    // терм -> (id книги -> вес терма в книге)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    // id книги -> термы книги, нужны для удаления старых записей при изменении
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong queries = new AtomicLong();
+
+    private final AtomicLong totalQueryNanos = new AtomicLong();
+
+    private volatile Duration buildTime = Duration.ZERO;
+
+    public void rebuild(Stream<Book> books) {
+        long startedAt = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            books.forEach(this::addUnderLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        buildTime = Duration.ofNanos(System.nanoTime() - startedAt);
+    }
+
+    public void index(Book book) {
+        indexAll(List.of(book));
+    }
+
+    public void indexAll(Collection<Book> books) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                books.forEach(book -> {
+                    removeUnderLock(book.getId());
+                    addUnderLock(book);
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(long bookId) {
+        removeAll(List.of(bookId));
+    }
+
+    public void removeAll(Collection<Long> bookIds) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                bookIds.forEach(this::removeUnderLock);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public List<SearchHit> search(String query, int offset, int limit) {
+        //offset + limit + 1 - емкость кучи в topHits, она должна помещаться в int
+        if (offset < 0 || limit < 1 || offset > Integer.MAX_VALUE - 1 - limit) {
+            throw new IllegalArgumentException(
+                    "Offset must be >= 0, limit must be > 0 and offset + limit must fit in int");
+        }
+        long startedAt = System.nanoTime();
+        var terms = tokenize(query).keySet();
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            int documentsCount = documents.size();
+            for (String term : terms) {
+                var termPostings = postings.getOrDefault(term, Map.of());
+                double idf = Math.log(1.0 + (double) documentsCount / Math.max(1, termPostings.size()));
+                termPostings.forEach((bookId, weight) -> scores.merge(bookId, weight * idf, Double::sum));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        var hits = topHits(scores, offset, limit);
+
+        queries.incrementAndGet();
+        totalQueryNanos.addAndGet(System.nanoTime() - startedAt);
+        return hits;
+    }
+
+    public SearchIndexStats getStats() {
+        lock.readLock().lock();
+        try {
+            return new SearchIndexStats(documents.size(), postings.size(), buildTime,
+                    queries.get(), Duration.ofNanos(totalQueryNanos.get()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Внутри транзакции индекс меняется только после коммита: иначе поиск найдёт ещё не закоммиченную
+    //книгу, а после отката в индексе останется строка, которой нет в базе
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void addUnderLock(Book book) {
+        Map<String, Integer> terms = new HashMap<>();
+        tokenize(book.getTitle()).forEach((term, count) -> terms.merge(term, count * TITLE_WEIGHT, Integer::sum));
+        if (book.getAuthor() != null) {
+            tokenize(book.getAuthor().getFullName())
+                    .forEach((term, count) -> terms.merge(term, count * AUTHOR_WEIGHT, Integer::sum));
+        }
+        documents.put(book.getId(), terms);
+        terms.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>())
+                .put(book.getId(), weight));
+    }
+
+    private void removeUnderLock(long bookId) {
+        var terms = documents.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        terms.keySet().forEach(term -> {
+            var termPostings = postings.get(term);
+            termPostings.remove(bookId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+    }
+
+    //Держим в куче только offset + limit лучших результатов вместо сортировки всех совпадений
+    private static List<SearchHit> topHits(Map<Long, Double> scores, int offset, int limit) {
+        int capacity = offset + limit;
+        //Больше совпадений, чем есть, в куче не окажется, поэтому не выделяем память под весь запрошенный размер
+        var heap = new PriorityQueue<SearchHit>(Math.min(capacity, scores.size()) + 1, RANKING.reversed());
+        scores.forEach((bookId, score) -> {
+            heap.offer(new SearchHit(bookId, score));
+            if (heap.size() > capacity) {
+                heap.poll();
+            }
+        });
+        var hits = new ArrayList<>(heap);
+        hits.sort(RANKING);
+        return hits.subList(Math.min(offset, hits.size()), hits.size());
+    }
+
+    private static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> tokens = new HashMap<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.merge(token, 1, Integer::sum);
+            }
+        }
+        return tokens;
+    }
+}
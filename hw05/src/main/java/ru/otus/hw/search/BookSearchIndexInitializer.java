@@ -0,0 +1,32 @@
+package ru.otus.hw.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.otus.hw.repositories.BookRepository;
+
+@Slf4j
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Component
+public class BookSearchIndexInitializer implements ApplicationRunner {
+
+    private final BookRepository bookRepository;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    //Индекс строится до запуска shell, чтобы первые запросы не видели пустой индекс
+    @Override
+    public void run(ApplicationArguments args) {
+        try (var books = bookRepository.streamAll()) {
+            bookSearchIndex.rebuild(books);
+        }
+        var stats = bookSearchIndex.getStats();
+        log.info("Book search index built: {} books, {} terms in {} ms",
+                stats.documents(), stats.terms(), stats.buildTime().toMillis());
+    }
+}
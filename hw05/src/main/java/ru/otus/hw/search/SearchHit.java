@@ -0,0 +1,4 @@
+package ru.otus.hw.search;
+
+public record SearchHit(long bookId, double score) {
+}
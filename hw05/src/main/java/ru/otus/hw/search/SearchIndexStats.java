@@ -0,0 +1,10 @@
+package ru.otus.hw.search;
+
+import java.time.Duration;
+
+public record SearchIndexStats(int documents, int terms, Duration buildTime, long queries, Duration totalQueryTime) {
+
+    public Duration averageQueryTime() {
+        return queries == 0 ? Duration.ZERO : totalQueryTime.dividedBy(queries);
+    }
+}
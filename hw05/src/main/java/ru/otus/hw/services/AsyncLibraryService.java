@@ -0,0 +1,22 @@
+package ru.otus.hw.services;
+
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncLibraryService {
+    CompletableFuture<Optional<Book>> findBookById(long id);
+
+    CompletableFuture<List<Book>> findBooksByIds(Collection<Long> ids);
+
+    CompletableFuture<List<Book>> findAllBooks();
+
+    CompletableFuture<List<Author>> findAllAuthors();
+
+    CompletableFuture<List<Genre>> findAllGenres();
+}
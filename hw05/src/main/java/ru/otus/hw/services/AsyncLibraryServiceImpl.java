@@ -0,0 +1,78 @@
+package ru.otus.hw.services;
+
+import org.springframework.stereotype.Service;
+import ru.otus.hw.config.ExecutionProperties;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+@Service
+public class AsyncLibraryServiceImpl implements AsyncLibraryService {
+    private final BookService bookService;
+
+    private final AuthorService authorService;
+
+    private final GenreService genreService;
+
+    private final ExecutorService libraryExecutor;
+
+    //Виртуальных потоков может быть сколько угодно, а соединений в пуле мало. Ожидание на семафоре
+    //не занимает поток-носитель, в отличие от ожидания внутри synchronized-блоков пула и драйвера
+    private final Semaphore queryPermits;
+
+    public AsyncLibraryServiceImpl(BookService bookService,
+                                   AuthorService authorService,
+                                   GenreService genreService,
+                                   ExecutorService libraryExecutor,
+                                   ExecutionProperties executionProperties) {
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.genreService = genreService;
+        this.libraryExecutor = libraryExecutor;
+        this.queryPermits = new Semaphore(executionProperties.getMaxConcurrentQueries(), true);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Book>> findBookById(long id) {
+        return supplyAsync(() -> bookService.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> findBooksByIds(Collection<Long> ids) {
+        return supplyAsync(() -> bookService.findAllByIds(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> findAllBooks() {
+        return supplyAsync(bookService::findAll);
+    }
+
+    @Override
+    public CompletableFuture<List<Author>> findAllAuthors() {
+        return supplyAsync(authorService::findAll);
+    }
+
+    @Override
+    public CompletableFuture<List<Genre>> findAllGenres() {
+        return supplyAsync(genreService::findAll);
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            queryPermits.acquireUninterruptibly();
+            try {
+                return query.get();
+            } finally {
+                queryPermits.release();
+            }
+        }, libraryExecutor);
+    }
+}
@@ -2,8 +2,25 @@ package ru.otus.hw.services;
 
 import ru.otus.hw.models.Author;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
 
 public interface AuthorService {
     List<Author> findAll();
+
+    Optional<Author> findById(long id);
+
+    List<Author> findAllByIds(Collection<Long> ids);
+
+    Author insert(String fullName);
+
+    List<Author> insertAll(List<String> fullNames);
+
+    Author update(long id, String fullName);
+
+    // Книги автора удаляются пакетами до удаления самой записи, progressListener получает
+    // число удаленных книг после каждого пакета. Возвращает, сколько книг удалено
+    long deleteById(long id, LongConsumer progressListener);
 }
@@ -2,18 +2,104 @@ package ru.otus.hw.services;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.cache.BookCacheInvalidator;
+import ru.otus.hw.exceptions.EntityNotFoundException;
 import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
 import ru.otus.hw.repositories.AuthorRepository;
+import ru.otus.hw.repositories.BookRepository;
+import ru.otus.hw.search.BookSearchIndex;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
 
 @RequiredArgsConstructor
 @Service
 public class AuthorServiceImpl implements AuthorService {
+
+    private static final int REINDEX_PAGE_SIZE = 1000;
+
     private final AuthorRepository authorRepository;
 
+    private final BookRepository bookRepository;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    private final BookCacheInvalidator bookCacheInvalidator;
+
+    private final BookBatchDeleter bookBatchDeleter;
+
+    private final CatalogVersion catalogVersion;
+
     @Override
     public List<Author> findAll() {
         return authorRepository.findAll();
     }
+
+    @Override
+    public Optional<Author> findById(long id) {
+        return authorRepository.findById(id);
+    }
+
+    @Override
+    public List<Author> findAllByIds(Collection<Long> ids) {
+        return authorRepository.findAllByIds(ids);
+    }
+
+    @Override
+    public Author insert(String fullName) {
+        var author = authorRepository.save(new Author(0, fullName));
+        catalogVersion.changed();
+        return author;
+    }
+
+    @Transactional
+    @Override
+    public List<Author> insertAll(List<String> fullNames) {
+        var authors = authorRepository.insertAll(fullNames.stream()
+                .map(fullName -> new Author(0, fullName))
+                .toList());
+        catalogVersion.changed();
+        return authors;
+    }
+
+    //Имя автора входит в закэшированные книги и в поисковый индекс, поэтому после переименования
+    //книги автора убираются из кэша и переиндексируются страницами
+    @Override
+    public Author update(long id, String fullName) {
+        var author = authorRepository.save(new Author(id, fullName));
+        bookCacheInvalidator.evictByAuthorId(id);
+        reindexBooks(id);
+        catalogVersion.changed();
+        return author;
+    }
+
+    @Override
+    public long deleteById(long id, LongConsumer progressListener) {
+        authorRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Author with id %d not found".formatted(id)));
+        long deletedBooks = bookBatchDeleter.deleteInBatches(
+                limit -> bookRepository.deleteBatchByAuthorId(id, limit), progressListener);
+        //Книги, добавленные автору после последнего пакета, удаляет сам deleteById
+        var lateBookIds = authorRepository.deleteById(id);
+        bookSearchIndex.removeAll(lateBookIds);
+        bookCacheInvalidator.evictByAuthorId(id);
+        catalogVersion.changed();
+        return deletedBooks + lateBookIds.size();
+    }
+
+    private void reindexBooks(long authorId) {
+        long afterId = 0;
+        List<Book> books;
+        do {
+            books = bookRepository.findAllByAuthorId(authorId, afterId, REINDEX_PAGE_SIZE);
+            bookSearchIndex.indexAll(books);
+            if (!books.isEmpty()) {
+                afterId = books.get(books.size() - 1).getId();
+            }
+        } while (books.size() == REINDEX_PAGE_SIZE);
+    }
 }
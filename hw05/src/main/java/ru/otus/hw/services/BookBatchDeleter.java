@@ -0,0 +1,47 @@
+package ru.otus.hw.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.otus.hw.cache.BookCacheInvalidator;
+import ru.otus.hw.config.CatalogProperties;
+import ru.otus.hw.search.BookSearchIndex;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+
+//Удаляет книги автора или жанра пакетами до удаления самой записи. Каскад внешнего ключа удалил бы
+//все книги одним запросом и держал блокировки до его конца; здесь каждый пакет - отдельная короткая транзакция
+@RequiredArgsConstructor
+@Component
+public class BookBatchDeleter {
+
+    private final BookSearchIndex bookSearchIndex;
+
+    private final BookCacheInvalidator bookCacheInvalidator;
+
+    private final CatalogVersion catalogVersion;
+
+    private final CatalogProperties catalogProperties;
+
+    // deleteBatch удаляет не больше переданного числа книг и возвращает их id,
+    // progressListener получает число удаленных книг после каждого пакета
+    public long deleteInBatches(IntFunction<List<Long>> deleteBatch, LongConsumer progressListener) {
+        int batchSize = Math.max(1, catalogProperties.getCascadeDeleteBatchSize());
+        long deleted = 0;
+        while (true) {
+            var ids = deleteBatch.apply(batchSize);
+            if (ids.isEmpty()) {
+                return deleted;
+            }
+            bookSearchIndex.removeAll(ids);
+            ids.forEach(bookCacheInvalidator::evict);
+            catalogVersion.changed();
+            deleted += ids.size();
+            progressListener.accept(deleted);
+            if (ids.size() < batchSize) {
+                return deleted;
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.otus.hw.services;
+
+import ru.otus.hw.models.BookChange;
+
+import java.util.List;
+
+public interface BookChangeService {
+    // Следующая порция изменений после afterSeq; пустой список - новых изменений пока нет.
+    // Изменение транзакции, закоммиченной дольше gap-timeout, приходит позже под новым seq
+    List<BookChange> readAfter(long afterSeq, int limit);
+
+    long lastSeq();
+}
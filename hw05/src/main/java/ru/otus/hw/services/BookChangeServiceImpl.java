@@ -0,0 +1,71 @@
+package ru.otus.hw.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.otus.hw.config.ChangeFeedProperties;
+import ru.otus.hw.models.BookChange;
+import ru.otus.hw.repositories.BookChangeRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@RequiredArgsConstructor
+@Service
+public class BookChangeServiceImpl implements BookChangeService {
+
+    // Больше стольких пропущенных seq не запоминаем: огромный пропуск - это не транзакции, а, например,
+    // кэш последовательности H2, потерянный при перезапуске
+    private static final int MAX_SKIPPED_SEQS = 10_000;
+
+    private final BookChangeRepository bookChangeRepository;
+
+    private final ChangeFeedProperties properties;
+
+    // seq, пропущенные по gap-timeout -> когда пропущены. Транзакция не переживает приложение
+    // (база встроенная), поэтому держать их в памяти достаточно
+    private final NavigableMap<Long, Instant> skippedSeqs = new ConcurrentSkipListMap<>();
+
+    //seq выдается при записи, а видна строка после коммита, поэтому параллельная транзакция может
+    //закоммитить меньший seq позже большего. Отдаем только непрерывный префикс: пропуск номера держит
+    //выдачу, пока не станет старше gap-timeout. Пропущенный после этого seq запоминается: если медленная
+    //транзакция все же его закоммитит, изменение переносится в конец журнала и достается всем читателям
+    @Override
+    public List<BookChange> readAfter(long afterSeq, int limit) {
+        moveLateChanges();
+        var changes = bookChangeRepository.findAllAfter(afterSeq, limit);
+        var now = Instant.now();
+        var gapDeadline = now.minus(Duration.ofMillis(properties.getGapTimeoutMillis()));
+        long expectedSeq = afterSeq + 1;
+        int ready = 0;
+        for (var change : changes) {
+            if (change.seq() != expectedSeq) {
+                if (change.changedAt().isAfter(gapDeadline)) {
+                    break;
+                }
+                for (long seq = expectedSeq; seq < change.seq() && skippedSeqs.size() < MAX_SKIPPED_SEQS; seq++) {
+                    skippedSeqs.putIfAbsent(seq, now);
+                }
+            }
+            expectedSeq = change.seq() + 1;
+            ready++;
+        }
+        return changes.subList(0, ready);
+    }
+
+    @Override
+    public long lastSeq() {
+        return bookChangeRepository.findLastSeq();
+    }
+
+    private void moveLateChanges() {
+        if (skippedSeqs.isEmpty()) {
+            return;
+        }
+        var recheckDeadline = Instant.now().minus(Duration.ofMillis(properties.getSkippedSeqRecheckMillis()));
+        skippedSeqs.values().removeIf(skippedAt -> skippedAt.isBefore(recheckDeadline));
+        bookChangeRepository.moveToEnd(List.copyOf(skippedSeqs.keySet())).forEach(skippedSeqs::remove);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.otus.hw.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.otus.hw.config.SoftDeleteProperties;
+import ru.otus.hw.repositories.BookRepository;
+
+//Физически удаляет мягко удаленные книги небольшими пакетами вне пользовательских запросов:
+//каждый пакет - отдельная короткая транзакция, поэтому блокировки не копятся на всю очистку
+@Slf4j
+@Component
+public class BookPurger {
+
+    public static final String BACKLOG_GAUGE = "library.books.purge.backlog";
+
+    public static final String PURGED_COUNTER = "library.books.purged";
+
+    public static final String BATCH_TIMER = "library.books.purge.batch";
+
+    private final BookRepository bookRepository;
+
+    private final SoftDeleteProperties properties;
+
+    private final Counter purged;
+
+    private final Timer batchTimer;
+
+    public BookPurger(BookRepository bookRepository, SoftDeleteProperties properties, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.properties = properties;
+        Gauge.builder(BACKLOG_GAUGE, bookRepository, BookRepository::countDeleted)
+                .description("Мягко удаленные книги, ожидающие очистки")
+                .register(meterRegistry);
+        this.purged = Counter.builder(PURGED_COUNTER)
+                .description("Физически удаленные очисткой книги")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder(BATCH_TIMER)
+                .description("Время одного пакета очистки")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${library.soft-delete.purge-interval-millis:10000}",
+            initialDelayString = "${library.soft-delete.purge-interval-millis:10000}")
+    public void purgeScheduled() {
+        purge();
+    }
+
+    // Возвращает, сколько книг удалено за запуск
+    public long purge() {
+        int batchSize = Math.max(1, properties.getPurgeBatchSize());
+        long total = 0;
+        for (int batch = 0; batch < properties.getPurgeMaxBatchesPerRun(); batch++) {
+            Integer deleted = batchTimer.record(() -> bookRepository.purgeDeleted(batchSize));
+            int deletedRows = deleted == null ? 0 : deleted;
+            purged.increment(deletedRows);
+            total += deletedRows;
+            if (deletedRows < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} soft-deleted books", total);
+        }
+        return total;
+    }
+}
@@ -2,17 +2,49 @@ package ru.otus.hw.services;
 
 import ru.otus.hw.models.Book;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 public interface BookService {
     Optional<Book> findById(long id);
 
+    List<Book> findAllByIds(Collection<Long> ids);
+
     List<Book> findAll();
 
+    List<Book> findPage(long afterId, int limit);
+
+    List<Book> findByAuthorId(long authorId, int limit);
+
+    List<Book> findByGenreId(long genreId, int limit);
+
+    List<Book> findByTitlePrefix(String titlePrefix, int limit);
+
+    List<Book> search(String query, int limit);
+
+    List<Book> search(String query, int offset, int limit);
+
+    Stream<Book> streamAll();
+
+    Stream<Book> streamPage(int page, int size);
+
+    long count();
+
     Book insert(String title, long authorId, long genreId);
 
-    Book update(long id, String title, long authorId, long genreId);
+    List<Book> insertAll(List<Book> books);
+
+    // Изменение, только если книга все еще имеет версию version, иначе OptimisticLockException
+    Book update(long id, long version, String title, long authorId, long genreId);
+
+    // change применяется к прочитанной книге; при конфликте книга перечитывается и change применяется заново
+    Book update(long id, UnaryOperator<Book> change);
+
+    // Первый жанр становится основным, остальные - дополнительными
+    Book updateGenres(long id, List<Long> genreIds);
 
     void deleteById(long id);
 }
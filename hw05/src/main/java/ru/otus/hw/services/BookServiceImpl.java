@@ -2,14 +2,29 @@ package ru.otus.hw.services;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.cache.BookCacheInvalidator;
+import ru.otus.hw.config.SoftDeleteProperties;
 import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.exceptions.OptimisticLockException;
+import ru.otus.hw.models.Author;
 import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
 import ru.otus.hw.repositories.AuthorRepository;
 import ru.otus.hw.repositories.BookRepository;
 import ru.otus.hw.repositories.GenreRepository;
+import ru.otus.hw.search.BookSearchIndex;
+import ru.otus.hw.search.SearchHit;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
@@ -20,37 +35,213 @@ public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
 
+    private final BookSearchIndex bookSearchIndex;
+
+    private final CatalogVersion catalogVersion;
+
+    private final BookCacheInvalidator bookCacheInvalidator;
+
+    private final OptimisticLockRetry optimisticLockRetry;
+
+    private final SoftDeleteProperties softDeleteProperties;
+
     @Override
     public Optional<Book> findById(long id) {
         return bookRepository.findById(id);
     }
 
+    @Override
+    public List<Book> findAllByIds(Collection<Long> ids) {
+        return bookRepository.findAllByIds(ids);
+    }
+
     @Override
     public List<Book> findAll() {
         return bookRepository.findAll();
     }
 
+    @Override
+    public List<Book> findPage(long afterId, int limit) {
+        return bookRepository.findAllAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Book> findByAuthorId(long authorId, int limit) {
+        return bookRepository.findAllByAuthorId(authorId, limit);
+    }
+
+    @Override
+    public List<Book> findByGenreId(long genreId, int limit) {
+        return bookRepository.findAllByGenreId(genreId, limit);
+    }
+
+    @Override
+    public List<Book> findByTitlePrefix(String titlePrefix, int limit) {
+        return bookRepository.findAllByTitlePrefix(titlePrefix, limit);
+    }
+
+    @Override
+    public List<Book> search(String query, int limit) {
+        return search(query, 0, limit);
+    }
+
+    @Override
+    public List<Book> search(String query, int offset, int limit) {
+        var hits = bookSearchIndex.search(query, offset, limit);
+        return bookRepository.findAllByIds(hits.stream().map(SearchHit::bookId).toList());
+    }
+
+    @Override
+    public Stream<Book> streamAll() {
+        return bookRepository.streamAll();
+    }
+
+    @Override
+    public Stream<Book> streamPage(int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be > 0");
+        }
+        //Оба множителя - int, поэтому их произведение в long не переполняется
+        return bookRepository.streamAll((long) page * size, size);
+    }
+
+    @Override
+    public long count() {
+        return bookRepository.count();
+    }
+
+    @Transactional
     @Override
     public Book insert(String title, long authorId, long genreId) {
-        return save(0, title, authorId, genreId);
+        return save(0, 0, title, authorId, genreId);
+    }
+
+    @Transactional
+    @Override
+    public List<Book> insertAll(List<Book> books) {
+        var authors = findAuthorsByIds(books.stream().map(book -> book.getAuthor().getId()).toList());
+        var genres = findGenresByIds(books.stream().map(book -> book.getGenre().getId()).toList());
+
+        var newBooks = books.stream()
+                .map(book -> new Book(0, book.getTitle(),
+                        authors.get(book.getAuthor().getId()),
+                        genres.get(book.getGenre().getId())))
+                .toList();
+        var savedBooks = bookRepository.saveAll(newBooks);
+        bookSearchIndex.indexAll(savedBooks);
+        catalogVersion.changed();
+        return savedBooks;
+    }
+
+    @Transactional
+    @Override
+    public Book update(long id, long version, String title, long authorId, long genreId) {
+        return save(id, version, title, authorId, genreId);
     }
 
+    //Каждая попытка заново читает книгу мимо кэша и сохраняет ее с прочитанной версией, поэтому изменение,
+    //опередившее нас, не затирается: change применяется уже к нему. Повторы по политике library.optimistic-lock
     @Override
-    public Book update(long id, String title, long authorId, long genreId) {
-        return save(id, title, authorId, genreId);
+    public Book update(long id, UnaryOperator<Book> change) {
+        return optimisticLockRetry.execute(() -> {
+            var book = bookRepository.findAllByIds(List.of(id)).stream().findFirst()
+                    .orElseThrow(() -> bookNotFoundException(id));
+            long version = book.getVersion();
+            var changedBook = change.apply(book);
+            return save(id, version, changedBook.getTitle(), changedBook.getAuthor().getId(),
+                    changedBook.getGenre().getId());
+        });
     }
 
+    //Версия читается в той же транзакции: при параллельном изменении книги будет OptimisticLockException,
+    //а не повтор, потому что основной и дополнительные жанры должны сохраниться вместе
+    @Transactional
+    @Override
+    public Book updateGenres(long id, List<Long> genreIds) {
+        if (genreIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one genre is required");
+        }
+        var genres = findGenresByIds(genreIds);
+        //findAllByIds читает мимо кэша, поэтому версия актуальна
+        var book = bookRepository.findAllByIds(List.of(id)).stream().findFirst()
+                .orElseThrow(() -> bookNotFoundException(id));
+        long mainGenreId = genreIds.get(0);
+        var extraGenreIds = genreIds.stream()
+                .filter(genreId -> genreId != mainGenreId)
+                .distinct()
+                .sorted()
+                .toList();
+
+        var savedBook = save(id, book.getVersion(), book.getTitle(), book.getAuthor().getId(), mainGenreId);
+        bookRepository.replaceExtraGenres(id, extraGenreIds);
+        savedBook.setExtraGenres(extraGenreIds.stream().map(genres::get).toList());
+        return savedBook;
+    }
+
+    @Transactional
     @Override
     public void deleteById(long id) {
-        bookRepository.deleteById(id);
+        if (softDeleteProperties.isEnabled()) {
+            bookRepository.softDeleteById(id);
+        } else {
+            bookRepository.deleteById(id);
+        }
+        bookSearchIndex.remove(id);
+        bookCacheInvalidator.evict(id);
+        catalogVersion.changed();
+    }
+
+    private Book save(long id, long version, String title, long authorId, long genreId) {
+        var book = bookRepository.upsert(
+                        new Book(id, title, new Author(authorId, null), new Genre(genreId, null), version))
+                .orElseThrow(() -> saveFailure(id, version, authorId, genreId));
+        bookSearchIndex.index(book);
+        bookCacheInvalidator.evict(book.getId());
+        catalogVersion.changed();
+        return book;
+    }
+
+    //Вызывается только когда запрос не изменил ни одной строки, чтобы назвать причину
+    private RuntimeException saveFailure(long id, long version, long authorId, long genreId) {
+        if (authorRepository.findById(authorId).isEmpty()) {
+            return new EntityNotFoundException("Author with id %d not found".formatted(authorId));
+        }
+        if (genreRepository.findById(genreId).isEmpty()) {
+            return new EntityNotFoundException("Genre with id %d not found".formatted(genreId));
+        }
+        return bookRepository.findVersionById(id)
+                .<RuntimeException>map(actualVersion -> OptimisticLockException.bookChanged(id, version, actualVersion))
+                .orElseGet(() -> bookNotFoundException(id));
+    }
+
+    private static EntityNotFoundException bookNotFoundException(long id) {
+        return new EntityNotFoundException(String.format("Book with id = [%s] not found", id));
+    }
+
+    private Map<Long, Author> findAuthorsByIds(Collection<Long> authorIds) {
+        var ids = Set.copyOf(authorIds);
+        var authors = authorRepository.findAllByIds(ids).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+        checkAllFound("Authors", ids, authors.keySet());
+        return authors;
+    }
+
+    private Map<Long, Genre> findGenresByIds(Collection<Long> genreIds) {
+        var ids = Set.copyOf(genreIds);
+        var genres = genreRepository.findAllByIds(ids).stream()
+                .collect(Collectors.toMap(Genre::getId, Function.identity()));
+        checkAllFound("Genres", ids, genres.keySet());
+        return genres;
     }
 
-    private Book save(long id, String title, long authorId, long genreId) {
-        var author = authorRepository.findById(authorId)
-                .orElseThrow(() -> new EntityNotFoundException("Author with id %d not found".formatted(authorId)));
-        var genre = genreRepository.findById(genreId)
-                .orElseThrow(() -> new EntityNotFoundException("Genre with id %d not found".formatted(genreId)));
-        var book = new Book(id, title, author, genre);
-        return bookRepository.save(book);
+    private static void checkAllFound(String entityName, Set<Long> requestedIds, Set<Long> foundIds) {
+        if (foundIds.size() == requestedIds.size()) {
+            return;
+        }
+        var missingIds = requestedIds.stream()
+                .filter(id -> !foundIds.contains(id))
+                .sorted()
+                .toList();
+        throw new EntityNotFoundException("%s with ids %s not found".formatted(entityName, missingIds));
     }
 }
@@ -0,0 +1,78 @@
+package ru.otus.hw.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.otus.hw.config.CatalogProperties;
+import ru.otus.hw.exceptions.CatalogTransferException;
+import ru.otus.hw.io.CatalogFormat;
+import ru.otus.hw.io.CatalogRecord;
+import ru.otus.hw.io.CatalogRecordWriter;
+import ru.otus.hw.io.CsvCatalogRecordWriter;
+import ru.otus.hw.io.NdjsonCatalogRecordWriter;
+import ru.otus.hw.io.TransferStats;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.repositories.BookRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+@Service
+public class CatalogExportServiceImpl implements CatalogExportService {
+    private final BookRepository bookRepository;
+
+    private final CatalogProperties catalogProperties;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public TransferStats exportBooks(Path file, CatalogFormat format, Consumer<TransferStats> progressListener) {
+        long progressInterval = Math.max(1, catalogProperties.getExportProgressInterval());
+        long startedAt = System.nanoTime();
+        long exportedRows = 0;
+
+        try (var writer = openWriter(file, format);
+             var books = bookRepository.streamAll()) {
+            var iterator = books.iterator();
+            while (iterator.hasNext()) {
+                writer.write(toRecord(iterator.next()));
+                if (++exportedRows % progressInterval == 0) {
+                    progressListener.accept(stats(exportedRows, startedAt));
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new CatalogTransferException("Export to %s failed: %s".formatted(file, e.getMessage()), e);
+        }
+        return stats(exportedRows, startedAt);
+    }
+
+    private CatalogRecordWriter openWriter(Path file, CatalogFormat format) throws IOException {
+        var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        var writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8),
+                catalogProperties.getExportBufferSize());
+        return switch (format) {
+            case CSV -> new CsvCatalogRecordWriter(writer);
+            case NDJSON -> new NdjsonCatalogRecordWriter(writer, objectMapper.writer());
+        };
+    }
+
+    private static CatalogRecord toRecord(Book book) {
+        return new CatalogRecord(book.getTitle(),
+                book.getAuthor() == null ? null : book.getAuthor().getFullName(),
+                book.getGenre() == null ? null : book.getGenre().getName());
+    }
+
+    private static TransferStats stats(long rows, long startedAt) {
+        return new TransferStats(rows, Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+}
@@ -0,0 +1,11 @@
+package ru.otus.hw.services;
+
+import ru.otus.hw.io.CatalogFormat;
+import ru.otus.hw.io.TransferStats;
+
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+public interface CatalogImportService {
+    TransferStats importBooks(Path file, CatalogFormat format, Consumer<TransferStats> progressListener);
+}
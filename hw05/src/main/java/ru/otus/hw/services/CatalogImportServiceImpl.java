@@ -0,0 +1,130 @@
+package ru.otus.hw.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.hw.config.CatalogProperties;
+import ru.otus.hw.exceptions.CatalogTransferException;
+import ru.otus.hw.io.CatalogFormat;
+import ru.otus.hw.io.CatalogRecord;
+import ru.otus.hw.io.CatalogRecordReader;
+import ru.otus.hw.io.CsvCatalogRecordReader;
+import ru.otus.hw.io.NdjsonCatalogRecordReader;
+import ru.otus.hw.io.TransferStats;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.AuthorRepository;
+import ru.otus.hw.repositories.BookRepository;
+import ru.otus.hw.repositories.GenreRepository;
+import ru.otus.hw.search.BookSearchIndex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@RequiredArgsConstructor
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+    private final AuthorRepository authorRepository;
+
+    private final GenreRepository genreRepository;
+
+    private final BookRepository bookRepository;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    private final CatalogVersion catalogVersion;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CatalogProperties catalogProperties;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public TransferStats importBooks(Path file, CatalogFormat format, Consumer<TransferStats> progressListener) {
+        var authors = toMap(authorRepository.findAll(), Author::getFullName);
+        var genres = toMap(genreRepository.findAll(), Genre::getName);
+        int chunkSize = Math.max(1, catalogProperties.getImportChunkSize());
+
+        long startedAt = System.nanoTime();
+        long importedRows = 0;
+        try (var reader = openReader(file, format)) {
+            List<CatalogRecord> chunk = new ArrayList<>(chunkSize);
+            CatalogRecord record;
+            while ((record = reader.read()) != null) {
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    importedRows += importChunk(chunk, authors, genres);
+                    chunk.clear();
+                    progressListener.accept(stats(importedRows, startedAt));
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importedRows += importChunk(chunk, authors, genres);
+            }
+        } catch (IOException e) {
+            throw new CatalogTransferException("Import from %s failed: %s".formatted(file, e.getMessage()), e);
+        }
+        return stats(importedRows, startedAt);
+    }
+
+    private int importChunk(List<CatalogRecord> chunk, Map<String, Author> authors, Map<String, Genre> genres) {
+        var savedBooks = transactionTemplate.execute(status -> {
+            var newAuthors = chunk.stream()
+                    .map(CatalogRecord::author)
+                    .filter(name -> !authors.containsKey(name))
+                    .distinct()
+                    .map(name -> new Author(0, name))
+                    .toList();
+            authorRepository.insertAll(newAuthors).forEach(author -> authors.put(author.getFullName(), author));
+
+            var newGenres = chunk.stream()
+                    .map(CatalogRecord::genre)
+                    .filter(name -> !genres.containsKey(name))
+                    .distinct()
+                    .map(name -> new Genre(0, name))
+                    .toList();
+            genreRepository.insertAll(newGenres).forEach(genre -> genres.put(genre.getName(), genre));
+
+            var books = chunk.stream()
+                    .map(record -> new Book(0, record.title(),
+                            authors.get(record.author()),
+                            genres.get(record.genre())))
+                    .toList();
+            return bookRepository.saveAll(books);
+        });
+        //noinspection DataFlowIssue
+        bookSearchIndex.indexAll(savedBooks);
+        catalogVersion.changed();
+        return savedBooks.size();
+    }
+
+    private CatalogRecordReader openReader(Path file, CatalogFormat format) throws IOException {
+        var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        return switch (format) {
+            case CSV -> new CsvCatalogRecordReader(reader);
+            case NDJSON -> new NdjsonCatalogRecordReader(reader, objectMapper.reader());
+        };
+    }
+
+    private static <T> Map<String, T> toMap(List<T> entities, Function<T, String> nameExtractor) {
+        Map<String, T> entitiesByName = new HashMap<>();
+        entities.forEach(entity -> entitiesByName.putIfAbsent(nameExtractor.apply(entity), entity));
+        return entitiesByName;
+    }
+
+    private static TransferStats stats(long rows, long startedAt) {
+        return new TransferStats(rows, Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+}
@@ -0,0 +1,17 @@
+package ru.otus.hw.services;
+
+import ru.otus.hw.models.AuthorBookCount;
+import ru.otus.hw.models.CatalogTotals;
+import ru.otus.hw.models.GenreBookCount;
+
+import java.util.List;
+
+public interface CatalogStatsService {
+    List<AuthorBookCount> countBooksByAuthor(int limit);
+
+    List<GenreBookCount> countBooksByGenre(int limit);
+
+    List<AuthorBookCount> findTopAuthors(int limit);
+
+    CatalogTotals countTotals();
+}
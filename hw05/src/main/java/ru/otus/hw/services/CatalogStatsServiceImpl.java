@@ -0,0 +1,36 @@
+package ru.otus.hw.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.otus.hw.models.AuthorBookCount;
+import ru.otus.hw.models.CatalogTotals;
+import ru.otus.hw.models.GenreBookCount;
+import ru.otus.hw.repositories.CatalogStatsRepository;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@Service
+public class CatalogStatsServiceImpl implements CatalogStatsService {
+    private final CatalogStatsRepository catalogStatsRepository;
+
+    @Override
+    public List<AuthorBookCount> countBooksByAuthor(int limit) {
+        return catalogStatsRepository.countBooksByAuthor(limit);
+    }
+
+    @Override
+    public List<GenreBookCount> countBooksByGenre(int limit) {
+        return catalogStatsRepository.countBooksByGenre(limit);
+    }
+
+    @Override
+    public List<AuthorBookCount> findTopAuthors(int limit) {
+        return catalogStatsRepository.findTopAuthors(limit);
+    }
+
+    @Override
+    public CatalogTotals countTotals() {
+        return catalogStatsRepository.countTotals();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.otus.hw.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Номер версии каталога, меняется при каждой записи. По нему строятся ETag ответов HTTP API
+@Component
+public class CatalogVersion {
+
+    //Момент запуска приложения: счётчик версий после перезапуска снова начинается с 0,
+    //и без него ETag нового запуска совпал бы с ETag, выданным до перезапуска для других данных
+    private final long epoch;
+
+    private final AtomicLong version = new AtomicLong();
+
+    public CatalogVersion() {
+        this(System.currentTimeMillis());
+    }
+
+    public CatalogVersion(long epoch) {
+        this.epoch = epoch;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    //Внутри транзакции версия меняется после её завершения, иначе параллельный запрос
+    //мог бы прочитать ещё не закоммиченные данные под старой версией и закешировать их под новой
+    public void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                version.incrementAndGet();
+            }
+        });
+    }
+}
@@ -2,8 +2,25 @@ package ru.otus.hw.services;
 
 import ru.otus.hw.models.Genre;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
 
 public interface GenreService {
     List<Genre> findAll();
+
+    Optional<Genre> findById(long id);
+
+    List<Genre> findAllByIds(Collection<Long> ids);
+
+    Genre insert(String name);
+
+    List<Genre> insertAll(List<String> names);
+
+    Genre update(long id, String name);
+
+    // Книги жанра удаляются пакетами до удаления самой записи, progressListener получает
+    // число удаленных книг после каждого пакета. Возвращает, сколько книг удалено
+    long deleteById(long id, LongConsumer progressListener);
 }
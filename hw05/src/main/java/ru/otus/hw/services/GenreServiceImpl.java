@@ -2,18 +2,87 @@ package ru.otus.hw.services;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.cache.BookCacheInvalidator;
+import ru.otus.hw.exceptions.EntityNotFoundException;
 import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.BookRepository;
 import ru.otus.hw.repositories.GenreRepository;
+import ru.otus.hw.search.BookSearchIndex;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
 
 @RequiredArgsConstructor
 @Service
 public class GenreServiceImpl implements GenreService {
+
     private final GenreRepository genreRepository;
 
+    private final BookRepository bookRepository;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    private final BookCacheInvalidator bookCacheInvalidator;
+
+    private final BookBatchDeleter bookBatchDeleter;
+
+    private final CatalogVersion catalogVersion;
+
     @Override
     public List<Genre> findAll() {
         return genreRepository.findAll();
     }
+
+    @Override
+    public Optional<Genre> findById(long id) {
+        return genreRepository.findById(id);
+    }
+
+    @Override
+    public List<Genre> findAllByIds(Collection<Long> ids) {
+        return genreRepository.findAllByIds(ids);
+    }
+
+    @Override
+    public Genre insert(String name) {
+        var genre = genreRepository.save(new Genre(0, name));
+        catalogVersion.changed();
+        return genre;
+    }
+
+    @Transactional
+    @Override
+    public List<Genre> insertAll(List<String> names) {
+        var genres = genreRepository.insertAll(names.stream()
+                .map(name -> new Genre(0, name))
+                .toList());
+        catalogVersion.changed();
+        return genres;
+    }
+
+    //Название жанра в поисковый индекс не входит, достаточно убрать его книги из кэша
+    @Override
+    public Genre update(long id, String name) {
+        var genre = genreRepository.save(new Genre(id, name));
+        bookCacheInvalidator.evictByGenreId(id);
+        catalogVersion.changed();
+        return genre;
+    }
+
+    @Override
+    public long deleteById(long id, LongConsumer progressListener) {
+        genreRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Genre with id %d not found".formatted(id)));
+        long deletedBooks = bookBatchDeleter.deleteInBatches(
+                limit -> bookRepository.deleteBatchByGenreId(id, limit), progressListener);
+        //Книги, добавленные в жанр после последнего пакета, удаляет сам deleteById
+        var lateBookIds = genreRepository.deleteById(id);
+        bookSearchIndex.removeAll(lateBookIds);
+        bookCacheInvalidator.evictByGenreId(id);
+        catalogVersion.changed();
+        return deletedBooks + lateBookIds.size();
+    }
 }
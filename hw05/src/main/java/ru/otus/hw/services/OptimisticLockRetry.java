@@ -0,0 +1,59 @@
+package ru.otus.hw.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.otus.hw.config.OptimisticLockProperties;
+import ru.otus.hw.exceptions.OptimisticLockException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+//Повторяет операцию чтение-изменение-запись при конфликте версий. Каждая попытка должна заново
+//читать текущую версию, поэтому повтор не может выполняться внутри одной транзакции
+@Component
+public class OptimisticLockRetry {
+
+    public static final String CONFLICTS_COUNTER = "library.optimistic.lock.conflicts";
+
+    private final OptimisticLockProperties properties;
+
+    private final Counter conflicts;
+
+    public OptimisticLockRetry(OptimisticLockProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.conflicts = Counter.builder(CONFLICTS_COUNTER)
+                .description("Отклоненные из-за устаревшей версии изменения")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> attempt) {
+        int maxAttempts = Math.max(1, properties.getMaxAttempts());
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockException e) {
+                conflicts.increment();
+                if (attemptNumber >= maxAttempts) {
+                    throw e;
+                }
+                backoff(attemptNumber);
+            }
+        }
+    }
+
+    //Случайная пауза, чтобы столкнувшиеся потоки не повторяли запись одновременно
+    private void backoff(int attemptNumber) {
+        long bound = Math.min(properties.getMaxBackoffMillis(),
+                properties.getInitialBackoffMillis() << Math.min(attemptNumber - 1, 20));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
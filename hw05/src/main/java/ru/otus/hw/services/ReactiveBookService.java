@@ -0,0 +1,18 @@
+package ru.otus.hw.services;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.hw.models.Book;
+
+public interface ReactiveBookService {
+    Mono<Book> findById(long id);
+
+    Flux<Book> findAll();
+
+    Mono<Book> insert(String title, long authorId, long genreId);
+
+    // Изменение, только если книга все еще имеет версию version, иначе OptimisticLockException
+    Mono<Book> update(long id, long version, String title, long authorId, long genreId);
+
+    Mono<Void> deleteById(long id);
+}
@@ -0,0 +1,106 @@
+package ru.otus.hw.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.hw.cache.BookCacheInvalidator;
+import ru.otus.hw.config.SoftDeleteProperties;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.exceptions.OptimisticLockException;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.ReactiveAuthorRepository;
+import ru.otus.hw.repositories.ReactiveBookRepository;
+import ru.otus.hw.repositories.ReactiveGenreRepository;
+import ru.otus.hw.search.BookSearchIndex;
+
+@RequiredArgsConstructor
+@Service
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    // Сколько строк запрашивать у базы за раз при потоковой выдаче
+    private static final int FIND_ALL_PREFETCH = 256;
+
+    private final ReactiveAuthorRepository authorRepository;
+
+    private final ReactiveGenreRepository genreRepository;
+
+    private final ReactiveBookRepository bookRepository;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    private final CatalogVersion catalogVersion;
+
+    private final BookCacheInvalidator bookCacheInvalidator;
+
+    private final SoftDeleteProperties softDeleteProperties;
+
+    @Override
+    public Mono<Book> findById(long id) {
+        return bookRepository.findById(id);
+    }
+
+    @Override
+    public Flux<Book> findAll() {
+        return bookRepository.findAll().limitRate(FIND_ALL_PREFETCH);
+    }
+
+    @Override
+    public Mono<Book> insert(String title, long authorId, long genreId) {
+        return save(0, 0, title, authorId, genreId);
+    }
+
+    @Override
+    public Mono<Book> update(long id, long version, String title, long authorId, long genreId) {
+        return save(id, version, title, authorId, genreId);
+    }
+
+    @Override
+    public Mono<Void> deleteById(long id) {
+        var delete = softDeleteProperties.isEnabled()
+                ? bookRepository.softDeleteById(id)
+                : bookRepository.deleteById(id);
+        //Репозиторий удаляет в своей транзакции (TransactionalOperator), поэтому индекс, кэш и версия
+        //меняются уже после ее коммита
+        return delete
+                .doOnSuccess(ignored -> {
+                    bookSearchIndex.remove(id);
+                    bookCacheInvalidator.evict(id);
+                    catalogVersion.changed();
+                });
+    }
+
+    private Mono<Book> save(long id, long version, String title, long authorId, long genreId) {
+        return bookRepository.upsert(
+                        new Book(id, title, new Author(authorId, null), new Genre(genreId, null), version))
+                .switchIfEmpty(Mono.defer(() -> saveError(id, version, authorId, genreId)))
+                .doOnNext(book -> {
+                    bookSearchIndex.index(book);
+                    bookCacheInvalidator.evict(book.getId());
+                    catalogVersion.changed();
+                });
+    }
+
+    //Вызывается только когда запрос не изменил ни одной строки, чтобы назвать причину
+    private Mono<Book> saveError(long id, long version, long authorId, long genreId) {
+        var authorNotFound = Mono.<Book>error(
+                new EntityNotFoundException("Author with id %d not found".formatted(authorId)));
+        var genreNotFound = Mono.<Book>error(
+                new EntityNotFoundException("Genre with id %d not found".formatted(genreId)));
+        var bookNotSaved = bookRepository.findVersionById(id)
+                .<Book>flatMap(actualVersion ->
+                        Mono.error(OptimisticLockException.bookChanged(id, version, actualVersion)))
+                .switchIfEmpty(Mono.error(() -> bookNotFoundException(id)));
+
+        return authorRepository.findById(authorId).hasElement()
+                .flatMap(authorExists -> !authorExists ? authorNotFound
+                        : genreRepository.findById(genreId).hasElement()
+                        .flatMap(genreExists -> genreExists ? bookNotSaved : genreNotFound));
+    }
+
+    private static EntityNotFoundException bookNotFoundException(long id) {
+        return new EntityNotFoundException(String.format("Book with id = [%s] not found", id));
+    }
+}
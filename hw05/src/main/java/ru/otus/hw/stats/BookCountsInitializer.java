@@ -0,0 +1,53 @@
+package ru.otus.hw.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.hw.config.StatsProperties;
+
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class BookCountsInitializer implements SmartInitializingSingleton {
+
+    private static final String TRIGGER_NAME = "books_counts_trigger";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final StatsProperties statsProperties;
+
+    //Ставит триггер, который дальше ведет book_counts сам, и пересчитывает счетчики по текущим данным.
+    //H2 коммитит DDL сразу, поэтому транзакция не делает это атомарным: вместо этого пересчет выполняется
+    //до запуска веб-сервера и команд, когда книги еще никто не пишет, и уже после установки триггера.
+    //Если таблица счетчиков выключена, триггер снимается, чтобы не замедлять запись
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!statsProperties.isCountsTable()) {
+            jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + TRIGGER_NAME);
+            return;
+        }
+        long startedAt = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + TRIGGER_NAME);
+            jdbcTemplate.execute("CREATE TRIGGER %s AFTER INSERT, UPDATE, DELETE ON books FOR EACH ROW CALL '%s'"
+                    .formatted(TRIGGER_NAME, BookCountsTrigger.class.getName()));
+            jdbcTemplate.update("DELETE FROM book_counts");
+            jdbcTemplate.update("""
+                    INSERT INTO book_counts (dimension, ref_id, books)
+                    SELECT 'TOTAL', 0, COUNT(*) FROM books WHERE deleted_at IS NULL
+                    UNION ALL
+                    SELECT 'AUTHOR', author_id, COUNT(*) FROM books
+                    WHERE author_id IS NOT NULL AND deleted_at IS NULL GROUP BY author_id
+                    UNION ALL
+                    SELECT 'GENRE', genre_id, COUNT(*) FROM books
+                    WHERE genre_id IS NOT NULL AND deleted_at IS NULL GROUP BY genre_id
+                    """);
+        });
+        log.info("Book counts table rebuilt in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
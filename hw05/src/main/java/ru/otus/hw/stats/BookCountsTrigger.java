@@ -0,0 +1,96 @@
+package ru.otus.hw.stats;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+//Строчный триггер H2 на books: выполняется в транзакции изменяющего запроса, поэтому счетчики
+//в book_counts меняются атомарно вместе с книгами при любом пути записи (JDBC, пакеты, R2DBC, каскады).
+//Мягко удаленная строка (deleted_at не null) не считается, поэтому ее очистка счетчики не меняет
+public class BookCountsTrigger implements Trigger {
+
+    private static final String ADD_BOOKS = """
+            MERGE INTO book_counts target
+            USING (VALUES (CAST(? AS VARCHAR(16)), CAST(? AS BIGINT), CAST(? AS BIGINT))) delta(dimension, ref_id, books)
+                ON target.dimension = delta.dimension AND target.ref_id = delta.ref_id
+            WHEN MATCHED THEN UPDATE SET books = target.books + delta.books
+            WHEN NOT MATCHED THEN INSERT (dimension, ref_id, books) VALUES (delta.dimension, delta.ref_id, delta.books)
+            """;
+
+    private int authorIdColumn;
+
+    private int genreIdColumn;
+
+    private int deletedAtColumn;
+
+    //Номера колонок берутся из схемы, чтобы триггер не зависел от порядка и числа колонок books
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        authorIdColumn = -1;
+        genreIdColumn = -1;
+        deletedAtColumn = -1;
+        try (var columns = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+            while (columns.next()) {
+                var name = columns.getString("COLUMN_NAME");
+                int index = columns.getInt("ORDINAL_POSITION") - 1;
+                if ("AUTHOR_ID".equalsIgnoreCase(name)) {
+                    authorIdColumn = index;
+                } else if ("GENRE_ID".equalsIgnoreCase(name)) {
+                    genreIdColumn = index;
+                } else if ("DELETED_AT".equalsIgnoreCase(name)) {
+                    deletedAtColumn = index;
+                }
+            }
+        }
+        if (authorIdColumn < 0 || genreIdColumn < 0) {
+            throw new SQLException("Table %s has no author_id or genre_id column".formatted(tableName));
+        }
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        var deltas = new LinkedHashMap<Map.Entry<String, Long>, Long>();
+        if (isPresent(oldRow)) {
+            addDeltas(deltas, oldRow, -1);
+        }
+        if (isPresent(newRow)) {
+            addDeltas(deltas, newRow, 1);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try (var statement = conn.prepareStatement(ADD_BOOKS)) {
+            for (var delta : deltas.entrySet()) {
+                statement.setString(1, delta.getKey().getKey());
+                statement.setLong(2, delta.getKey().getValue());
+                statement.setLong(3, delta.getValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private boolean isPresent(Object[] row) {
+        return row != null && (deletedAtColumn < 0 || row[deletedAtColumn] == null);
+    }
+
+    private void addDeltas(Map<Map.Entry<String, Long>, Long> deltas, Object[] row, long sign) {
+        deltas.merge(Map.entry("TOTAL", 0L), sign, Long::sum);
+        if (row[authorIdColumn] != null) {
+            deltas.merge(Map.entry("AUTHOR", toLong(row[authorIdColumn])), sign, Long::sum);
+        }
+        if (row[genreIdColumn] != null) {
+            deltas.merge(Map.entry("GENRE", toLong(row[genreIdColumn])), sign, Long::sum);
+        }
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) Objects.requireNonNull(value)).longValue();
+    }
+}
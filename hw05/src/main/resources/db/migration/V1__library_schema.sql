@@ -0,0 +1,44 @@
+create table authors
+(
+    id        bigserial,
+    full_name varchar(255),
+    primary key (id)
+);
+
+create table genres
+(
+    id   bigserial,
+    name varchar(255),
+    primary key (id)
+);
+
+create table books
+(
+    id        bigserial,
+    title     varchar(255),
+    author_id bigint,
+    genre_id  bigint,
+    -- Номер версии строки для оптимистической блокировки: каждое изменение увеличивает его на 1
+    version   bigint default 0 not null,
+    primary key (id)
+);
+
+-- Индексы создаются до внешних ключей, чтобы ограничения использовали их, а не заводили свои
+create index idx_books_author_id on books (author_id);
+create index idx_books_genre_id on books (genre_id);
+create index idx_books_title on books (title);
+
+alter table books add foreign key (author_id) references authors (id) on delete cascade;
+alter table books add foreign key (genre_id) references genres (id) on delete cascade;
+
+-- Счетчики книг по авторам (AUTHOR), жанрам (GENRE) и всего (TOTAL, ref_id = 0).
+-- Поддерживаются триггером, только если включено library.stats.counts-table
+create table book_counts
+(
+    dimension varchar(16),
+    ref_id    bigint,
+    books     bigint not null,
+    primary key (dimension, ref_id)
+);
+
+create index idx_book_counts_books on book_counts (dimension, books);
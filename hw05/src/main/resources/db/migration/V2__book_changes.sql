@@ -0,0 +1,16 @@
+-- Журнал изменений книг (outbox): строку пишет триггер в транзакции изменяющего запроса,
+-- потребители читают его по возрастанию seq, начиная с последнего обработанного номера
+create table book_changes
+(
+    seq        bigint generated by default as identity,
+    book_id    bigint      not null,
+    -- INSERT, UPDATE или DELETE
+    operation  varchar(8)  not null,
+    -- Версия книги после изменения, для DELETE - последняя версия
+    version    bigint      not null,
+    changed_at timestamp   not null,
+    primary key (seq)
+);
+
+create trigger books_changes_trigger after insert, update, delete on books
+    for each row call 'ru.otus.hw.changes.BookChangesTrigger';
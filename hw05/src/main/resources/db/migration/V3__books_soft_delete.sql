@@ -0,0 +1,19 @@
+-- Мягкое удаление: строка с deleted_at считается удаленной для всех чтений,
+-- а физически ее удаляет фоновая очистка небольшими пакетами
+alter table books add column deleted_at timestamp;
+
+-- Очередь очистки вместо индекса по books.deleted_at: такой индекс H2 выбирает для условия
+-- deleted_at IS NULL в каждом чтении и теряет индексы по названию и порядок по id.
+-- Внешнего ключа на books нет: каскадная проверка в H2 стоит сотни микросекунд на каждую удаляемую книгу,
+-- строки очереди удаляет сама очистка
+create table book_purge_queue (
+    book_id bigint primary key,
+    deleted_at timestamp not null
+);
+
+create index idx_book_purge_queue_deleted_at on book_purge_queue (deleted_at);
+
+-- Триггер пересоздается, чтобы прочитать новую колонку deleted_at
+drop trigger books_changes_trigger;
+create trigger books_changes_trigger after insert, update, delete on books
+    for each row call 'ru.otus.hw.changes.BookChangesTrigger';
@@ -0,0 +1,14 @@
+-- Дополнительные жанры книги. Основной жанр остается в books.genre_id: по нему считаются счетчики,
+-- статистика и выборка книг жанра, а здесь хранятся только остальные жанры книги
+create table book_genres (
+    book_id bigint,
+    genre_id bigint,
+    primary key (book_id, genre_id)
+);
+
+-- Индекс создается до внешнего ключа, чтобы ограничение использовало его, а не заводило свой
+create index idx_book_genres_genre_id on book_genres (genre_id);
+
+-- Внешнего ключа на books нет, как и у book_purge_queue: строки книги удаляет сам репозиторий
+-- вместе с книгой, а каскадная проверка в H2 стоила бы сотни микросекунд на каждую удаляемую книгу
+alter table book_genres add foreign key (genre_id) references genres (id) on delete cascade;
@@ -0,0 +1,72 @@
+package ru.otus.hw;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+//Отдельная база H2 в памяти со схемой из миграций Flyway и пулом Hikari заданного размера.
+//Используется нагрузочными тестами и бенчмарками, которым не нужен контекст Spring
+public class TestLibraryDatabase implements AutoCloseable {
+
+    private final String name;
+
+    private final HikariDataSource dataSource;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private TestLibraryDatabase(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    public static TestLibraryDatabase create(String prefix, int poolSize) {
+        return create(prefix, poolSize, null);
+    }
+
+    public static TestLibraryDatabase create(String prefix, int poolSize, MeterRegistry meterRegistry) {
+        var name = prefix + "_" + UUID.randomUUID().toString().replace("-", "");
+        var dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(poolSize);
+        if (meterRegistry != null) {
+            dataSource.setMetricRegistry(meterRegistry);
+        }
+        //Flyway держит два соединения одновременно, поэтому мигрирует мимо пула, размер которого может быть 1
+        Flyway.configure().dataSource(dataSource.getJdbcUrl(), "sa", null).load().migrate();
+        return new TestLibraryDatabase(name, dataSource);
+    }
+
+    //Книга X получает автора MOD(X, authors) + 1 и жанр MOD(X, genres) + 1
+    public void seed(int authors, int genres, int books) {
+        jdbcTemplate.update("""
+                INSERT INTO authors (full_name) SELECT 'Author_' || X FROM SYSTEM_RANGE(1, :authors);
+                INSERT INTO genres (name) SELECT 'Genre_' || X FROM SYSTEM_RANGE(1, :genres);
+                INSERT INTO books (title, author_id, genre_id)
+                SELECT 'BookTitle_' || X, MOD(X, :authors) + 1, MOD(X, :genres) + 1 FROM SYSTEM_RANGE(1, :books)
+                """, Map.of("authors", authors, "genres", genres, "books", books));
+    }
+
+    //Имя базы, по которому к ней можно подключиться и через R2DBC
+    public String getName() {
+        return name;
+    }
+
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public NamedParameterJdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
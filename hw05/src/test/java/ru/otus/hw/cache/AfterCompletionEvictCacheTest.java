@@ -0,0 +1,58 @@
+package ru.otus.hw.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.models.Author;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Кэш авторов и жанров ")
+class AfterCompletionEvictCacheTest {
+
+    private AfterCompletionEvictCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AfterCompletionEvictCache(CacheConfig.AUTHORS_CACHE, Caffeine.newBuilder().build(), false);
+        cache.put(1L, new Author(1, "Author_1"));
+        cache.put(2L, new Author(2, "Author_2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @DisplayName("должен удалять запись сразу вне транзакции")
+    @Test
+    void shouldEvictImmediatelyWithoutTransaction() {
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNotNull();
+    }
+
+    @DisplayName("должен удалять запись только после завершения транзакции")
+    @Test
+    void shouldEvictAfterTransactionCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(1L);
+        cache.clear();
+        assertThat(cache.get(1L)).isNotNull();
+        assertThat(cache.get(2L)).isNotNull();
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNull();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.otus.hw.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Инвалидация кэша книг ")
+class BookCacheInvalidatorTest {
+
+    private Cache cache;
+
+    private BookCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        var cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.BOOKS_CACHE, Caffeine.newBuilder().build());
+        cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        invalidator = new BookCacheInvalidator(cacheManager);
+
+        List.of(new Book(1, "BookTitle_1", new Author(1, "Author_1"), new Genre(1, "Genre_1")),
+                new Book(2, "BookTitle_2", new Author(1, "Author_1"), new Genre(2, "Genre_2")),
+                new Book(3, "BookTitle_3", new Author(2, "Author_2"), new Genre(2, "Genre_2")))
+                .forEach(book -> cache.put(book.getId(), book));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @DisplayName("должен удалять книги автора и жанра, не трогая остальные")
+    @Test
+    void shouldEvictBooksByAuthorAndGenre() {
+        invalidator.evictByAuthorId(1);
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(3L)).isNotNull();
+
+        invalidator.evictByGenreId(2);
+        assertThat(cache.get(3L)).isNull();
+    }
+
+    @DisplayName("должен удалять книгу только после завершения транзакции")
+    @Test
+    void shouldEvictAfterTransactionCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidator.evict(1);
+        assertThat(cache.get(1L)).isNotNull();
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNotNull();
+    }
+}
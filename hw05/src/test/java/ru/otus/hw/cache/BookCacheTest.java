@@ -0,0 +1,55 @@
+package ru.otus.hw.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Кэш книг ")
+class BookCacheTest {
+
+    private BookCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BookCache(CacheConfig.BOOKS_CACHE, Caffeine.newBuilder().build(), true);
+    }
+
+    @DisplayName("должен хранить и отдавать копии книг")
+    @Test
+    void shouldStoreAndReturnCopies() {
+        var book = new Book(1, "BookTitle_1", new Author(1, "Author_1"), new Genre(1, "Genre_1"), 0,
+                List.of(new Genre(2, "Genre_2")));
+        cache.put(1L, book);
+        book.setTitle("Changed");
+        book.getAuthor().setFullName("Changed");
+
+        var cached = cache.get(1L, Book.class);
+        assertThat(cached).isNotSameAs(book);
+        cached.setExtraGenres(List.of());
+        cached.getGenre().setName("Changed");
+
+        assertThat(cache.get(1L, Book.class)).isEqualTo(new Book(1, "BookTitle_1", new Author(1, "Author_1"),
+                new Genre(1, "Genre_1"), 0, List.of(new Genre(2, "Genre_2"))));
+    }
+
+    @DisplayName("не должен принимать книгу, прочитанную до удаления из кэша")
+    @Test
+    void shouldRejectBookLoadedBeforeEviction() {
+        assertThat(cache.get(1L)).isNull();
+        cache.evict(1L);
+        cache.put(1L, new Book(1, "Stale", new Author(1, "Author_1"), new Genre(1, "Genre_1")));
+        assertThat(cache.get(1L)).isNull();
+
+        cache.put(1L, new Book(1, "Fresh", new Author(1, "Author_1"), new Genre(1, "Genre_1")));
+        assertThat(cache.get(1L, Book.class)).extracting(Book::getTitle).isEqualTo("Fresh");
+    }
+}
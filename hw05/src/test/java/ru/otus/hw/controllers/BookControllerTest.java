@@ -0,0 +1,131 @@
+package ru.otus.hw.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.services.BookService;
+import ru.otus.hw.services.CatalogVersion;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("HTTP API для работы с книгами ")
+@WebMvcTest(BookController.class)
+@Import({JsonArrayStreamer.class, CatalogETags.class, CatalogVersion.class})
+class BookControllerTest {
+
+    private static final List<Book> BOOKS = List.of(
+            new Book(1, "BookTitle_1", new Author(1, "Author_1"), new Genre(1, "Genre_1")),
+            new Book(2, "BookTitle_2", new Author(2, "Author_2"), new Genre(2, "Genre_2")));
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @MockBean
+    private BookService bookService;
+
+    @DisplayName("должен отдавать страницу книг потоком JSON")
+    @Test
+    void shouldStreamBooksPage() throws Exception {
+        given(bookService.findPage(0, 2)).willReturn(BOOKS);
+
+        var result = mvc.perform(get("/api/books").param("limit", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].title").value("BookTitle_2"))
+                .andExpect(jsonPath("$[1].author.fullName").value("Author_2"));
+    }
+
+    @DisplayName("должен отвечать 304, пока каталог не изменился, и новым ETag после изменения")
+    @Test
+    void shouldSupportConditionalGet() throws Exception {
+        given(bookService.findById(1)).willReturn(Optional.of(BOOKS.get(0)));
+
+        var etag = mvc.perform(get("/api/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("BookTitle_1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        mvc.perform(get("/api/books/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        catalogVersion.changed();
+
+        mvc.perform(get("/api/books/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @DisplayName("должен отвечать 404 для отсутствующей книги и 400 для некорректного запроса")
+    @Test
+    void shouldMapErrorsToStatuses() throws Exception {
+        given(bookService.findById(anyLong())).willReturn(Optional.empty());
+        given(bookService.insert("Title", 1, 100))
+                .willThrow(new EntityNotFoundException("Genre with id 100 not found"));
+
+        mvc.perform(get("/api/books/100"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/api/books").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"\", \"authorId\": 1, \"genreId\": 1}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Title\", \"authorId\": 1, \"genreId\": 100}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Genre with id 100 not found"));
+        mvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Title\", \"genreId\": 1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(startsWith("authorId: ")));
+        mvc.perform(put("/api/books/1").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Title\", \"authorId\": 1, \"genreId\": 1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("должен создавать книгу и возвращать её адрес")
+    @Test
+    void shouldInsertBook() throws Exception {
+        given(bookService.insert("BookTitle_1", 1, 1)).willReturn(BOOKS.get(0));
+
+        mvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"BookTitle_1\", \"authorId\": 1, \"genreId\": 1}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/books/1"))
+                .andExpect(jsonPath("$.id").value(1));
+    }
+}
@@ -0,0 +1,32 @@
+package ru.otus.hw.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.otus.hw.services.CatalogVersion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ETag ответов каталога ")
+class CatalogETagsTest {
+
+    @DisplayName("не должен повторяться после перезапуска, хотя счётчик версий снова начинается с 0")
+    @Test
+    void shouldDifferBetweenApplicationStarts() {
+        var beforeRestart = new CatalogETags(new CatalogVersion(1_000));
+        var afterRestart = new CatalogETags(new CatalogVersion(2_000));
+
+        assertThat(afterRestart.of("books")).isNotEqualTo(beforeRestart.of("books"));
+    }
+
+    @DisplayName("должен меняться при изменении каталога")
+    @Test
+    void shouldChangeWithCatalogVersion() {
+        var catalogVersion = new CatalogVersion(1_000);
+        var eTags = new CatalogETags(catalogVersion);
+        var eTag = eTags.of("books");
+
+        catalogVersion.changed();
+
+        assertThat(eTags.of("books")).isNotEqualTo(eTag).startsWith("\"books-");
+    }
+}
@@ -0,0 +1,83 @@
+package ru.otus.hw.io;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Запись каталога в CSV ")
+class CsvCatalogRecordWriterTest {
+
+    private static final CatalogRecord RECORD = new CatalogRecord("BookTitle_1", "Author_1", "Genre_1");
+
+    @DisplayName("должен писать заголовок и записи")
+    @Test
+    void shouldWriteHeaderAndRecords() throws IOException {
+        var out = new StringWriter();
+        try (var writer = new CsvCatalogRecordWriter(out)) {
+            writer.write(RECORD);
+        }
+
+        assertThat(out.toString().lines()).containsExactly("title,author,genre",
+                "\"BookTitle_1\",\"Author_1\",\"Genre_1\"");
+    }
+
+    @DisplayName("должен сообщать об ошибке записи, которую CSVWriter не бросает сам")
+    @Test
+    void shouldFailOnWriteError() throws IOException {
+        var out = new FailingWriter(false);
+        var writer = new CsvCatalogRecordWriter(out);
+        out.failing = true;
+
+        assertThatThrownBy(() -> writer.write(RECORD))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("No space left on device");
+    }
+
+    @DisplayName("должен сообщать об ошибке, случившейся при дописывании буфера на закрытии")
+    @Test
+    void shouldFailOnFlushErrorAtClose() throws IOException {
+        var out = new FailingWriter(true);
+        var writer = new CsvCatalogRecordWriter(out);
+        writer.write(RECORD);
+
+        assertThatThrownBy(writer::close)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("No space left on device");
+    }
+
+    //Пишет в никуда; с failing бросает IOException на записи, с failOnFlush - только при flush
+    private static class FailingWriter extends Writer {
+
+        private final boolean failOnFlush;
+
+        private boolean failing;
+
+        FailingWriter(boolean failOnFlush) {
+            this.failOnFlush = failOnFlush;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            if (failing) {
+                throw new IOException("No space left on device");
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (failOnFlush) {
+                throw new IOException("No space left on device");
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
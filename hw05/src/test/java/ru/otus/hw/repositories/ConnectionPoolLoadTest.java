@@ -0,0 +1,84 @@
+package ru.otus.hw.repositories;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.otus.hw.TestLibraryDatabase;
+import ru.otus.hw.config.JdbcBatchProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@DisplayName("Нагрузочный тест пула соединений ")
+class ConnectionPoolLoadTest {
+
+    private static final int BOOKS = 10_000;
+
+    private static final int THREADS = 16;
+
+    private static final int LOOKUPS_PER_THREAD = 1_000;
+
+    @DisplayName("должен выполнять параллельные запросы при любом размере пула и показывать рост пропускной способности")
+    @Test
+    void shouldServeConcurrentLookupsForEachPoolSize() throws Exception {
+        var report = new StringBuilder("pool size | lookups/sec | mean acquire, ms | max pending")
+                .append(System.lineSeparator());
+        for (int poolSize : List.of(1, 2, 4, 8)) {
+            var meterRegistry = new SimpleMeterRegistry();
+            try (var database = TestLibraryDatabase.create("pool", poolSize, meterRegistry)) {
+                database.seed(1, 1, BOOKS);
+                var repository = new JdbcBookRepository(database.getJdbcTemplate(), new JdbcBatchProperties());
+
+                long startedAt = System.nanoTime();
+                int maxPending = runLookups(repository, database.getDataSource());
+                double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+                var acquire = meterRegistry.get("hikaricp.connections.acquire").timer();
+                assertThat(acquire.count()).isGreaterThanOrEqualTo((long) THREADS * LOOKUPS_PER_THREAD);
+                report.append("%9d | %11.0f | %16.3f | %d".formatted(poolSize,
+                                THREADS * LOOKUPS_PER_THREAD / seconds,
+                                acquire.mean(TimeUnit.MILLISECONDS), maxPending))
+                        .append(System.lineSeparator());
+            }
+        }
+        log.info("Connection pool load:{}{}", System.lineSeparator(), report);
+    }
+
+    private static int runLookups(JdbcBookRepository repository, HikariDataSource dataSource) throws Exception {
+        var executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                tasks.add(() -> {
+                    int found = 0;
+                    for (int j = 0; j < LOOKUPS_PER_THREAD; j++) {
+                        long id = ThreadLocalRandom.current().nextLong(1, BOOKS + 1);
+                        found += repository.findById(id).isPresent() ? 1 : 0;
+                    }
+                    return found;
+                });
+            }
+            int maxPending = 0;
+            var futures = tasks.stream().map(executor::submit).toList();
+            while (futures.stream().anyMatch(future -> !future.isDone())) {
+                maxPending = Math.max(maxPending, dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection());
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            for (var future : futures) {
+                assertThat(future.get()).isEqualTo(LOOKUPS_PER_THREAD);
+            }
+            return maxPending;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Репозиторий на основе Jdbc для работы с авторами ")
+@JdbcTest
+@Import({JdbcAuthorRepository.class, JdbcBookRepository.class})
+@EnableConfigurationProperties(JdbcBatchProperties.class)
+class JdbcAuthorRepositoryTest {
+
+    @Autowired
+    private JdbcAuthorRepository repositoryJdbc;
+
+    @Autowired
+    private JdbcBookRepository bookRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @DisplayName("должен загружать всех авторов и авторов по списку id в порядке списка")
+    @Test
+    void shouldReturnAuthors() {
+        assertThat(repositoryJdbc.findAll()).containsExactlyElementsOf(getDbAuthors());
+        assertThat(repositoryJdbc.findById(2L)).contains(new Author(2, "Author_2"));
+        assertThat(repositoryJdbc.findAllByIds(List.of(3L, 100L, 1L)))
+                .containsExactly(new Author(3, "Author_3"), new Author(1, "Author_1"));
+    }
+
+    @DisplayName("должен пакетно вставлять авторов, проставляя им id")
+    @Test
+    void shouldInsertAllAuthors() {
+        var inserted = repositoryJdbc.insertAll(List.of(new Author(0, "Author_4"), new Author(0, "Author_5")));
+
+        assertThat(inserted).extracting(Author::getFullName).containsExactly("Author_4", "Author_5");
+        assertThat(inserted).allMatch(author -> author.getId() > 0)
+                .extracting(Author::getId).doesNotHaveDuplicates();
+        inserted.forEach(author -> assertThat(repositoryJdbc.findById(author.getId())).contains(author));
+        assertThat(repositoryJdbc.insertAll(List.of())).isEmpty();
+    }
+
+    @DisplayName("должен сохранять нового и измененного автора")
+    @Test
+    void shouldSaveNewAndUpdatedAuthor() {
+        var inserted = repositoryJdbc.save(new Author(0, "Author_4"));
+        assertThat(inserted.getId()).isPositive();
+        assertThat(repositoryJdbc.findById(inserted.getId())).contains(inserted);
+
+        var updated = repositoryJdbc.save(new Author(1, "Author_10500"));
+        assertThat(repositoryJdbc.findById(1L)).contains(updated);
+        assertThat(bookRepository.findById(1L)).get()
+                .extracting(book -> book.getAuthor().getFullName()).isEqualTo("Author_10500");
+    }
+
+    @DisplayName("не должен сохранять несуществующего автора")
+    @Test
+    void shouldNotSaveMissingAuthor() {
+        assertThatThrownBy(() -> repositoryJdbc.save(new Author(100, "Author_100")))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @DisplayName("должен удалять автора вместе с его книгами и их дополнительными жанрами")
+    @Test
+    void shouldDeleteAuthorWithBooksAndTheirExtraGenres() {
+        jdbcTemplate.update("""
+                INSERT INTO book_genres (book_id, genre_id) VALUES (1, 2), (1, 3), (2, 1)
+                """, Map.of());
+
+        assertThat(repositoryJdbc.deleteById(1L)).containsExactly(1L);
+
+        assertThat(repositoryJdbc.findById(1L)).isEmpty();
+        assertThat(bookRepository.findById(1L)).isEmpty();
+        assertThat(bookRepository.findAll()).extracting(Book::getId).containsExactly(2L, 3L);
+        assertThat(jdbcTemplate.queryForList("SELECT book_id FROM book_genres", Map.of(), Long.class))
+                .containsExactly(2L);
+    }
+
+    private static List<Author> getDbAuthors() {
+        return IntStream.range(1, 4).boxed()
+                .map(id -> new Author(id, "Author_" + id))
+                .toList();
+    }
+}
@@ -0,0 +1,90 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.BookChange;
+import ru.otus.hw.models.ChangeOperation;
+import ru.otus.hw.models.Genre;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("Журнал изменений книг ")
+@JdbcTest
+@Import({JdbcBookChangeRepository.class, JdbcBookRepository.class})
+@EnableConfigurationProperties(JdbcBatchProperties.class)
+class JdbcBookChangeRepositoryTest {
+
+    @Autowired
+    private JdbcBookChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcBookRepository bookRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @DisplayName("должен записывать вставку, изменение и удаление книги по возрастанию seq")
+    @Test
+    void shouldRecordBookChangesInOrder() {
+        long lastSeq = changeRepository.findLastSeq();
+
+        var book = bookRepository.save(new Book(0, "BookTitle_4", new Author(1, null), new Genre(2, null)));
+        bookRepository.save(new Book(book.getId(), "BookTitle_5", new Author(2, null), new Genre(2, null), 0));
+        bookRepository.deleteById(book.getId());
+
+        var changes = changeRepository.findAllAfter(lastSeq, 10);
+        assertThat(changes)
+                .extracting(BookChange::bookId, BookChange::operation, BookChange::version)
+                .containsExactly(
+                        tuple(book.getId(), ChangeOperation.INSERT, 0L),
+                        tuple(book.getId(), ChangeOperation.UPDATE, 1L),
+                        tuple(book.getId(), ChangeOperation.DELETE, 1L));
+        assertThat(changes).extracting(BookChange::seq).isSorted();
+        assertThat(changeRepository.findLastSeq()).isEqualTo(changes.get(2).seq());
+        assertThat(changeRepository.findAllAfter(changes.get(0).seq(), 1)).containsExactly(changes.get(1));
+    }
+
+    @DisplayName("должен записывать удаление книг при каскадном удалении автора")
+    @Test
+    void shouldRecordCascadeDeletes() {
+        long lastSeq = changeRepository.findLastSeq();
+
+        jdbcTemplate.update("DELETE FROM authors WHERE id = :id", Map.of("id", 1L));
+
+        assertThat(changeRepository.findAllAfter(lastSeq, 10))
+                .extracting(BookChange::bookId, BookChange::operation)
+                .containsExactly(tuple(1L, ChangeOperation.DELETE));
+    }
+
+    @DisplayName("должен переносить изменения в конец журнала под новыми seq, пропуская отсутствующие")
+    @Test
+    void shouldMoveChangesToEnd() {
+        long lastSeq = changeRepository.findLastSeq();
+        bookRepository.deleteById(1L);
+        bookRepository.deleteById(2L);
+        var changes = changeRepository.findAllAfter(lastSeq, 10);
+
+        var moved = changeRepository.moveToEnd(List.of(changes.get(1).seq(), changes.get(0).seq(), 10_500L));
+
+        assertThat(moved).containsExactly(changes.get(0).seq(), changes.get(1).seq());
+        var movedChanges = changeRepository.findAllAfter(lastSeq, 10);
+        assertThat(movedChanges).extracting(BookChange::seq).allMatch(seq -> seq > changes.get(1).seq());
+        assertThat(movedChanges).extracting(BookChange::bookId, BookChange::operation, BookChange::changedAt)
+                .containsExactly(
+                        tuple(1L, ChangeOperation.DELETE, changes.get(0).changedAt()),
+                        tuple(2L, ChangeOperation.DELETE, changes.get(1).changedAt()));
+        assertThat(changeRepository.moveToEnd(List.of(changes.get(0).seq()))).isEmpty();
+    }
+}
@@ -4,27 +4,43 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.exceptions.OptimisticLockException;
 import ru.otus.hw.models.Author;
 import ru.otus.hw.models.Book;
 import ru.otus.hw.models.Genre;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DisplayName("Репозиторий на основе Jdbc для работы с книгами ")
 @JdbcTest
 @Import({JdbcBookRepository.class, JdbcGenreRepository.class})
+@EnableConfigurationProperties(JdbcBatchProperties.class)
+@TestPropertySource(properties = "library.jdbc.batch.size=2")
 class JdbcBookRepositoryTest {
 
     @Autowired
     private JdbcBookRepository repositoryJdbc;
 
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
     private List<Author> dbAuthors;
 
     private List<Genre> dbGenres;
@@ -58,6 +74,91 @@ class JdbcBookRepositoryTest {
         actualBooks.forEach(System.out::println);
     }
 
+    @DisplayName("должен использовать один экземпляр автора и жанра для всех их книг в результате")
+    @Test
+    void shouldShareAuthorAndGenreInstancesWithinResult() {
+        repositoryJdbc.saveAll(List.of(
+                new Book(0, "SharedTitle_1", dbAuthors.get(0), dbGenres.get(0)),
+                new Book(0, "SharedTitle_2", dbAuthors.get(0), dbGenres.get(0))));
+
+        var actualBooks = repositoryJdbc.findAllByAuthorId(dbAuthors.get(0).getId(), 10);
+
+        assertThat(actualBooks).hasSize(3)
+                .allSatisfy(book -> {
+                    assertThat(book.getAuthor()).isSameAs(actualBooks.get(0).getAuthor())
+                            .isEqualTo(dbAuthors.get(0));
+                    assertThat(book.getGenre()).isSameAs(actualBooks.get(0).getGenre())
+                            .isEqualTo(dbGenres.get(0));
+                });
+    }
+
+    @DisplayName("должен загружать книги по списку id одним запросом в порядке списка")
+    @Test
+    void shouldReturnBooksByIdsInRequestedOrder() {
+        var actualBooks = repositoryJdbc.findAllByIds(List.of(3L, 1L, 100L, 3L));
+
+        assertThat(actualBooks).containsExactly(dbBooks.get(2), dbBooks.get(0));
+        assertThat(repositoryJdbc.findAllByIds(List.of())).isEmpty();
+    }
+
+    @DisplayName("должен загружать страницу книг после заданного id")
+    @Test
+    void shouldReturnBooksPageAfterId() {
+        var actualBooks = repositoryJdbc.findAllAfter(dbBooks.get(0).getId(), 1);
+
+        assertThat(actualBooks).containsExactly(dbBooks.get(1));
+        assertThat(repositoryJdbc.findAllAfter(dbBooks.get(2).getId(), 10)).isEmpty();
+    }
+
+    @DisplayName("должен отдавать все книги потоком в порядке id")
+    @Test
+    void shouldStreamAllBooksOrderedById() {
+        try (var actualBooks = repositoryJdbc.streamAll()) {
+            assertThat(actualBooks).containsExactlyElementsOf(dbBooks);
+        }
+    }
+
+    @DisplayName("должен отдавать потоком страницу книг по смещению и считать все книги")
+    @Test
+    void shouldStreamBooksPageByOffsetAndCountBooks() {
+        try (var actualBooks = repositoryJdbc.streamAll(1, 1)) {
+            assertThat(actualBooks).containsExactly(dbBooks.get(1));
+        }
+        assertThat(repositoryJdbc.count()).isEqualTo(dbBooks.size());
+    }
+
+    @DisplayName("должен загружать книги автора")
+    @Test
+    void shouldReturnBooksByAuthorId() {
+        assertThat(repositoryJdbc.findAllByAuthorId(dbAuthors.get(1).getId(), 10))
+                .containsExactly(dbBooks.get(1));
+    }
+
+    @DisplayName("должен загружать книги жанра")
+    @Test
+    void shouldReturnBooksByGenreId() {
+        assertThat(repositoryJdbc.findAllByGenreId(dbGenres.get(2).getId(), 10))
+                .containsExactly(dbBooks.get(2));
+    }
+
+    @DisplayName("должен загружать книги по началу названия, считая % и _ обычными символами")
+    @Test
+    void shouldReturnBooksByTitlePrefix() {
+        assertThat(repositoryJdbc.findAllByTitlePrefix("BookTitle_", 2))
+                .containsExactly(dbBooks.get(0), dbBooks.get(1));
+        assertThat(repositoryJdbc.findAllByTitlePrefix("BookTitle%", 10)).isEmpty();
+    }
+
+    @DisplayName("должен искать книги по индексам, без полного сканирования таблицы")
+    @ParameterizedTest
+    @MethodSource("getIndexedQueries")
+    void shouldUseIndexForLookups(String query, Map<String, Object> parameters, String expectedIndex) {
+        var plan = jdbcTemplate.queryForObject("EXPLAIN " + query, parameters, String.class);
+
+        assertThat(plan).contains(expectedIndex)
+                .doesNotContainIgnoringCase("BOOKS.tableScan");
+    }
+
     @DisplayName("должен сохранять новую книгу")
     @Test
     void shouldSaveNewBook() {
@@ -94,6 +195,76 @@ class JdbcBookRepositoryTest {
                 .isEqualTo(returnedBook);
     }
 
+    @DisplayName("должен одним запросом вставлять и изменять книгу, возвращая автора и жанр")
+    @Test
+    void shouldUpsertBookWithReferences() {
+        var inserted = repositoryJdbc.upsert(new Book(0, "BookTitle_10500",
+                new Author(dbAuthors.get(1).getId(), null), new Genre(dbGenres.get(2).getId(), null)));
+
+        assertThat(inserted).isPresent().get()
+                .matches(book -> book.getId() > 0)
+                .usingRecursiveComparison().ignoringFields("id")
+                .isEqualTo(new Book(0, "BookTitle_10500", dbAuthors.get(1), dbGenres.get(2)));
+
+        var expectedBook = new Book(1L, "BookTitle_10501", dbAuthors.get(2), dbGenres.get(0), 1);
+        var updated = repositoryJdbc.upsert(new Book(1L, "BookTitle_10501",
+                new Author(dbAuthors.get(2).getId(), null), new Genre(dbGenres.get(0).getId(), null)));
+
+        assertThat(updated).contains(expectedBook);
+        assertThat(repositoryJdbc.findById(1L)).contains(expectedBook);
+    }
+
+    @DisplayName("не должен сохранять книгу с несуществующим автором, жанром или id")
+    @Test
+    void shouldNotUpsertBookWithMissingReferences() {
+        var missingAuthor = new Book(0, "BookTitle_10500", new Author(100, null), dbGenres.get(0));
+        var missingGenre = new Book(1L, "BookTitle_10500", dbAuthors.get(0), new Genre(100, null));
+        var missingBook = new Book(100L, "BookTitle_10500", dbAuthors.get(0), dbGenres.get(0));
+
+        assertThat(repositoryJdbc.upsert(missingAuthor)).isEmpty();
+        assertThat(repositoryJdbc.upsert(missingGenre)).isEmpty();
+        assertThat(repositoryJdbc.upsert(missingBook)).isEmpty();
+        assertThat(repositoryJdbc.findAll()).containsExactlyElementsOf(dbBooks);
+    }
+
+    @DisplayName("должен отклонять изменение книги с устаревшей версией")
+    @Test
+    void shouldRejectUpdateWithStaleVersion() {
+        var firstChange = repositoryJdbc.save(new Book(1L, "BookTitle_10500", dbAuthors.get(1), dbGenres.get(1), 0));
+        assertThat(firstChange.getVersion()).isEqualTo(1);
+        assertThat(repositoryJdbc.findVersionById(1L)).contains(1L);
+
+        var staleBook = new Book(1L, "BookTitle_10501", dbAuthors.get(2), dbGenres.get(2), 0);
+        assertThatThrownBy(() -> repositoryJdbc.save(staleBook))
+                .isInstanceOf(OptimisticLockException.class)
+                .hasMessageContaining("expected version 0, actual 1");
+        assertThatThrownBy(() -> repositoryJdbc.saveAll(List.of(staleBook)))
+                .isInstanceOf(OptimisticLockException.class);
+        assertThat(repositoryJdbc.upsert(staleBook)).isEmpty();
+        assertThat(repositoryJdbc.findById(1L)).contains(firstChange);
+    }
+
+    @DisplayName("должен пакетно сохранять новые и измененные книги")
+    @Test
+    void shouldSaveAllBooksInBatches() {
+        var newBooks = IntStream.range(0, 5).boxed()
+                .map(i -> new Book(0, "BatchTitle_" + i, dbAuthors.get(i % 3), dbGenres.get(i % 3)))
+                .toList();
+        var updatedBook = new Book(1L, "BookTitle_10500", dbAuthors.get(2), dbGenres.get(2));
+        var books = new ArrayList<>(newBooks);
+        books.add(updatedBook);
+
+        var returnedBooks = repositoryJdbc.saveAll(books);
+
+        assertThat(returnedBooks).hasSize(6)
+                .allMatch(book -> book.getId() > 0)
+                .extracting(Book::getId).doesNotHaveDuplicates();
+        returnedBooks.forEach(book -> assertThat(repositoryJdbc.findById(book.getId()))
+                .isPresent()
+                .get()
+                .isEqualTo(book));
+    }
+
     @DisplayName("должен удалять книгу по id ")
     @Test
     void shouldDeleteBook() {
@@ -102,6 +273,119 @@ class JdbcBookRepositoryTest {
         assertThat(repositoryJdbc.findById(1L)).isEmpty();
     }
 
+    @DisplayName("должен удалять книги автора пакетами, возвращая id удаленных, включая мягко удаленные")
+    @Test
+    void shouldDeleteAuthorBooksInBatches() {
+        var added = repositoryJdbc.saveAll(List.of(
+                new Book(0, "BatchTitle_1", dbAuthors.get(0), dbGenres.get(1)),
+                new Book(0, "BatchTitle_2", dbAuthors.get(0), dbGenres.get(2))));
+        repositoryJdbc.softDeleteById(added.get(1).getId());
+
+        var firstBatch = repositoryJdbc.deleteBatchByAuthorId(dbAuthors.get(0).getId(), 2);
+        var secondBatch = repositoryJdbc.deleteBatchByAuthorId(dbAuthors.get(0).getId(), 2);
+
+        assertThat(firstBatch).hasSize(2);
+        assertThat(secondBatch).hasSize(1);
+        assertThat(repositoryJdbc.deleteBatchByAuthorId(dbAuthors.get(0).getId(), 2)).isEmpty();
+        var deletedIds = new ArrayList<>(firstBatch);
+        deletedIds.addAll(secondBatch);
+        assertThat(deletedIds).containsExactlyInAnyOrder(1L, added.get(0).getId(), added.get(1).getId());
+        assertThat(repositoryJdbc.findAll()).containsExactlyElementsOf(dbBooks.subList(1, dbBooks.size()));
+        assertThat(repositoryJdbc.deleteBatchByGenreId(dbGenres.get(1).getId(), 10)).containsExactly(2L);
+    }
+
+    @DisplayName("должен скрывать мягко удаленную книгу от чтений и физически удалять ее очисткой")
+    @Test
+    void shouldHideSoftDeletedBookAndPurgeIt() {
+        repositoryJdbc.softDeleteById(1L);
+        repositoryJdbc.softDeleteById(1L);
+
+        assertThat(repositoryJdbc.findById(1L)).isEmpty();
+        assertThat(repositoryJdbc.findVersionById(1L)).isEmpty();
+        assertThat(repositoryJdbc.findAllByIds(List.of(1L, 2L))).containsExactly(dbBooks.get(1));
+        assertThat(repositoryJdbc.findAll()).containsExactlyElementsOf(dbBooks.subList(1, dbBooks.size()));
+        assertThat(repositoryJdbc.count()).isEqualTo(dbBooks.size() - 1);
+        assertThatThrownBy(() -> repositoryJdbc.save(new Book(1L, "BookTitle_10500", dbAuthors.get(0),
+                dbGenres.get(0)))).isInstanceOf(EntityNotFoundException.class);
+        assertThat(repositoryJdbc.countDeleted()).isEqualTo(1);
+
+        assertThat(repositoryJdbc.purgeDeleted(10)).isEqualTo(1);
+        assertThat(repositoryJdbc.countDeleted()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Map.of(), Long.class))
+                .isEqualTo(dbBooks.size() - 1);
+    }
+
+    @DisplayName("должен загружать дополнительные жанры во всех чтениях и удалять их вместе с книгой")
+    @Test
+    void shouldLoadExtraGenresAndDeleteThemWithBook() {
+        repositoryJdbc.replaceExtraGenres(1L, List.of(3L, 2L));
+        repositoryJdbc.replaceExtraGenres(2L, List.of(1L));
+        repositoryJdbc.replaceExtraGenres(2L, List.of(3L));
+        var expectedBooks = List.of(
+                withExtraGenres(dbBooks.get(0), dbGenres.get(1), dbGenres.get(2)),
+                withExtraGenres(dbBooks.get(1), dbGenres.get(2)),
+                dbBooks.get(2));
+
+        assertThat(repositoryJdbc.findById(1L)).contains(expectedBooks.get(0));
+        assertThat(repositoryJdbc.findAllByIds(List.of(2L, 1L)))
+                .containsExactly(expectedBooks.get(1), expectedBooks.get(0));
+        var actualBooks = repositoryJdbc.findAll();
+        assertThat(actualBooks).containsExactlyElementsOf(expectedBooks);
+        assertThat(actualBooks.get(0).getExtraGenres().get(1)).isSameAs(actualBooks.get(1).getExtraGenres().get(0))
+                .isSameAs(actualBooks.get(2).getGenre());
+        try (var streamedBooks = repositoryJdbc.streamAll()) {
+            assertThat(streamedBooks).containsExactlyElementsOf(expectedBooks);
+        }
+        try (var streamedBooks = repositoryJdbc.streamAll(0, 2)) {
+            assertThat(streamedBooks).containsExactlyElementsOf(expectedBooks.subList(0, 2));
+        }
+
+        repositoryJdbc.softDeleteById(1L);
+        repositoryJdbc.purgeDeleted(10);
+        repositoryJdbc.deleteById(2L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_genres", Map.of(), Long.class)).isZero();
+    }
+
+    @DisplayName("должен убирать новый основной жанр книги из ее дополнительных жанров при любом изменении")
+    @Test
+    void shouldRemoveNewMainGenreFromExtraGenres() {
+        repositoryJdbc.replaceExtraGenres(1L, List.of(2L, 3L));
+        repositoryJdbc.replaceExtraGenres(2L, List.of(1L, 3L));
+
+        var upserted = repositoryJdbc.upsert(new Book(1L, "BookTitle_1",
+                new Author(dbAuthors.get(0).getId(), null), new Genre(dbGenres.get(1).getId(), null), 0));
+        assertThat(upserted).get().extracting(Book::getExtraGenres).isEqualTo(List.of(dbGenres.get(2)));
+
+        repositoryJdbc.save(new Book(1L, "BookTitle_1", dbAuthors.get(0), dbGenres.get(2), 1));
+        repositoryJdbc.saveAll(List.of(new Book(2L, "BookTitle_2", dbAuthors.get(1), dbGenres.get(0), 0)));
+
+        assertThat(repositoryJdbc.findAllByIds(List.of(1L, 2L))).containsExactly(
+                new Book(1L, "BookTitle_1", dbAuthors.get(0), dbGenres.get(2), 2),
+                withExtraGenres(new Book(2L, "BookTitle_2", dbAuthors.get(1), dbGenres.get(0), 1), dbGenres.get(2)));
+    }
+
+    private static Book withExtraGenres(Book book, Genre... extraGenres) {
+        return new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre(), book.getVersion(),
+                List.of(extraGenres));
+    }
+
+    private static Stream<Arguments> getIndexedQueries() {
+        return Stream.of(
+                Arguments.of(JdbcBookRepository.SELECT_BY_IDS,
+                        Map.of("ids", IdLookup.idArray(List.of(1L, 2L))), "PRIMARY_KEY"),
+                Arguments.of(JdbcBookRepository.SELECT_BY_AUTHOR_ID,
+                        Map.of("author_id", 1L, "after_id", 0L, "limit", 10), "IDX_BOOKS_AUTHOR_ID"),
+                Arguments.of(JdbcBookRepository.SELECT_BY_GENRE_ID,
+                        Map.of("genre_id", 1L, "limit", 10), "IDX_BOOKS_GENRE_ID"),
+                Arguments.of(JdbcBookRepository.SELECT_BY_TITLE_PREFIX,
+                        Map.of("title_pattern", JdbcBookRepository.toPrefixPattern("Book"), "limit", 10),
+                        "IDX_BOOKS_TITLE"),
+                Arguments.of(JdbcBookRepository.SELECT_PURGE_BATCH, Map.of("limit", 10),
+                        "IDX_BOOK_PURGE_QUEUE_DELETED_AT"),
+                Arguments.of(JdbcBookRepository.SELECT_EXTRA_GENRES,
+                        Map.of("ids", IdLookup.idArray(List.of(1L, 2L))), "PRIMARY_KEY"));
+    }
+
     private static List<Author> getDbAuthors() {
         return IntStream.range(1, 4).boxed()
                 .map(id -> new Author(id, "Author_" + id))
@@ -0,0 +1,96 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.config.StatsProperties;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.AuthorBookCount;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.CatalogTotals;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.stats.BookCountsInitializer;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Репозиторий статистики каталога ")
+@JdbcTest
+@Import({JdbcCatalogStatsRepository.class, JdbcBookRepository.class, BookCountsInitializer.class})
+@EnableConfigurationProperties({StatsProperties.class, JdbcBatchProperties.class})
+class JdbcCatalogStatsRepositoryTest {
+
+    @Autowired
+    private JdbcCatalogStatsRepository statsRepository;
+
+    @Autowired
+    private JdbcBookRepository bookRepository;
+
+    @Autowired
+    private BookCountsInitializer bookCountsInitializer;
+
+    @Autowired
+    private StatsProperties statsProperties;
+
+    @DisplayName("должен считать книги по авторам, жанрам и всего через GROUP BY")
+    @Test
+    void shouldCountBooksWithGroupBy() {
+        bookRepository.save(new Book(0, "BookTitle_4", new Author(1, null), new Genre(2, null)));
+
+        assertThat(statsRepository.countBooksByAuthor(2)).containsExactly(
+                new AuthorBookCount(new Author(1, "Author_1"), 2),
+                new AuthorBookCount(new Author(2, "Author_2"), 1));
+        assertThat(statsRepository.countBooksByGenre(10)).extracting(count -> count.books())
+                .containsExactly(1L, 2L, 1L);
+        assertThat(statsRepository.findTopAuthors(1)).containsExactly(
+                new AuthorBookCount(new Author(1, "Author_1"), 2));
+        assertThat(statsRepository.countTotals()).isEqualTo(new CatalogTotals(4, 3, 3));
+    }
+
+    @DisplayName("должен вести таблицу счетчиков в тех же транзакциях, что и изменения книг")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldMaintainCountsTable() {
+        statsProperties.setCountsTable(true);
+        try {
+            bookCountsInitializer.afterSingletonsInstantiated();
+
+            var saved = bookRepository.saveAll(List.of(
+                    new Book(0, "Counted_1", new Author(1, null), new Genre(1, null)),
+                    new Book(0, "Counted_2", new Author(1, null), new Genre(3, null))));
+            bookRepository.upsert(new Book(saved.get(0).getId(), "Counted_1", new Author(3, null),
+                    new Genre(1, null)));
+            bookRepository.deleteById(saved.get(1).getId());
+
+            assertSameInBothModes(() -> statsRepository.countBooksByAuthor(10));
+            assertSameInBothModes(() -> statsRepository.countBooksByGenre(10));
+            assertSameInBothModes(() -> statsRepository.findTopAuthors(10));
+            assertSameInBothModes(() -> statsRepository.countTotals());
+            assertThat(statsRepository.findTopAuthors(1)).containsExactly(
+                    new AuthorBookCount(new Author(3, "Author_3"), 2));
+
+            bookRepository.deleteById(saved.get(0).getId());
+        } finally {
+            statsProperties.setCountsTable(false);
+            bookCountsInitializer.afterSingletonsInstantiated();
+        }
+    }
+
+    private void assertSameInBothModes(Supplier<Object> query) {
+        statsProperties.setCountsTable(true);
+        var fromCountsTable = query.get();
+        statsProperties.setCountsTable(false);
+        var fromGroupBy = query.get();
+        statsProperties.setCountsTable(true);
+
+        assertThat(fromCountsTable).isEqualTo(fromGroupBy);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Репозиторий на основе Jdbc для работы с жанрами ")
+@JdbcTest
+@Import({JdbcGenreRepository.class, JdbcBookRepository.class})
+@EnableConfigurationProperties(JdbcBatchProperties.class)
+class JdbcGenreRepositoryTest {
+
+    @Autowired
+    private JdbcGenreRepository repositoryJdbc;
+
+    @Autowired
+    private JdbcBookRepository bookRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @DisplayName("должен загружать все жанры и жанры по списку id в порядке списка")
+    @Test
+    void shouldReturnGenres() {
+        assertThat(repositoryJdbc.findAll()).containsExactlyElementsOf(getDbGenres());
+        assertThat(repositoryJdbc.findById(2L)).contains(new Genre(2, "Genre_2"));
+        assertThat(repositoryJdbc.findAllByIds(List.of(3L, 100L, 1L)))
+                .containsExactly(new Genre(3, "Genre_3"), new Genre(1, "Genre_1"));
+    }
+
+    @DisplayName("должен пакетно вставлять жанры, проставляя им id")
+    @Test
+    void shouldInsertAllGenres() {
+        var inserted = repositoryJdbc.insertAll(List.of(new Genre(0, "Genre_4"), new Genre(0, "Genre_5")));
+
+        assertThat(inserted).extracting(Genre::getName).containsExactly("Genre_4", "Genre_5");
+        assertThat(inserted).allMatch(genre -> genre.getId() > 0)
+                .extracting(Genre::getId).doesNotHaveDuplicates();
+        inserted.forEach(genre -> assertThat(repositoryJdbc.findById(genre.getId())).contains(genre));
+        assertThat(repositoryJdbc.insertAll(List.of())).isEmpty();
+    }
+
+    @DisplayName("должен сохранять новый и измененный жанр")
+    @Test
+    void shouldSaveNewAndUpdatedGenre() {
+        var inserted = repositoryJdbc.save(new Genre(0, "Genre_4"));
+        assertThat(inserted.getId()).isPositive();
+        assertThat(repositoryJdbc.findById(inserted.getId())).contains(inserted);
+
+        var updated = repositoryJdbc.save(new Genre(1, "Genre_10500"));
+        assertThat(repositoryJdbc.findById(1L)).contains(updated);
+        assertThat(bookRepository.findById(1L)).get()
+                .extracting(book -> book.getGenre().getName()).isEqualTo("Genre_10500");
+    }
+
+    @DisplayName("не должен сохранять несуществующий жанр")
+    @Test
+    void shouldNotSaveMissingGenre() {
+        assertThatThrownBy(() -> repositoryJdbc.save(new Genre(100, "Genre_100")))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @DisplayName("должен удалять жанр вместе с его книгами, их дополнительными жанрами и ссылками других книг")
+    @Test
+    void shouldDeleteGenreWithBooksAndExtraGenres() {
+        jdbcTemplate.update("""
+                INSERT INTO book_genres (book_id, genre_id) VALUES (1, 2), (1, 3), (2, 1), (2, 3)
+                """, Map.of());
+
+        assertThat(repositoryJdbc.deleteById(1L)).containsExactly(1L);
+
+        assertThat(repositoryJdbc.findById(1L)).isEmpty();
+        assertThat(bookRepository.findById(1L)).isEmpty();
+        assertThat(bookRepository.findAll()).extracting(Book::getId).containsExactly(2L, 3L);
+        assertThat(bookRepository.findById(2L)).get()
+                .extracting(Book::getExtraGenres).isEqualTo(List.of(new Genre(3, "Genre_3")));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_genres", Map.of(), Long.class))
+                .isEqualTo(1);
+    }
+
+    private static List<Genre> getDbGenres() {
+        return IntStream.range(1, 4).boxed()
+                .map(id -> new Genre(id, "Genre_" + id))
+                .toList();
+    }
+}
@@ -0,0 +1,168 @@
+package ru.otus.hw.repositories;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import ru.otus.hw.TestLibraryDatabase;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@DisplayName("Сравнение реактивного (R2DBC) и блокирующего (JDBC) доступа к книгам ")
+class ReactiveVsJdbcLoadTest {
+
+    private static final int BOOKS = 10_000;
+
+    private static final int POOL_SIZE = 8;
+
+    private static final int CONCURRENCY = 32;
+
+    private static final int LOOKUPS = 20_000;
+
+    private TestLibraryDatabase database;
+
+    private ConnectionPool connectionPool;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private JdbcBookRepository jdbcRepository;
+
+    private R2dbcBookRepository r2dbcRepository;
+
+    @BeforeEach
+    void setUp() {
+        database = TestLibraryDatabase.create("rx", POOL_SIZE);
+        database.seed(100, 10, BOOKS);
+        jdbcTemplate = database.getJdbcTemplate();
+        //У книг от нуля до двух дополнительных жанров
+        jdbcTemplate.update("""
+                INSERT INTO book_genres (book_id, genre_id)
+                SELECT books.id, MOD(books.id + X, 10) + 1 FROM books, SYSTEM_RANGE(1, 2)
+                WHERE X <= MOD(books.id, 3)
+                """, Map.of());
+
+        var connectionFactory = ConnectionFactories.get(
+                ConnectionFactoryOptions.parse("r2dbc:h2:mem:///" + database.getName() + "?options=DB_CLOSE_DELAY=-1")
+                        .mutate()
+                        .option(ConnectionFactoryOptions.USER, "sa")
+                        .option(ConnectionFactoryOptions.PASSWORD, "")
+                        .build());
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(POOL_SIZE)
+                .maxSize(POOL_SIZE)
+                .build());
+
+        jdbcRepository = new JdbcBookRepository(jdbcTemplate, new JdbcBatchProperties());
+        r2dbcRepository = new R2dbcBookRepository(DatabaseClient.create(connectionPool));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionPool.dispose();
+        database.close();
+    }
+
+    @DisplayName("должен возвращать те же книги, что и JDBC-репозиторий")
+    @Test
+    void shouldReturnSameBooksAsJdbcRepository() {
+        for (long id : List.of(1L, BOOKS / 2L, (long) BOOKS)) {
+            assertThat(r2dbcRepository.findById(id).blockOptional()).isEqualTo(jdbcRepository.findById(id));
+        }
+
+        var streamedBooks = r2dbcRepository.findAll().limitRate(100).collectList().block();
+        assertThat(streamedBooks).isEqualTo(jdbcRepository.findAll().stream()
+                .sorted((left, right) -> Long.compare(left.getId(), right.getId()))
+                .toList());
+        assertThat(streamedBooks).extracting(book -> book.getExtraGenres().size()).contains(0, 1, 2);
+
+        var missingAuthor = new Book(0, "Title", new Author(1_000, null), new Genre(1, null));
+        assertThat(r2dbcRepository.upsert(missingAuthor).blockOptional()).isEmpty();
+        var inserted = r2dbcRepository.upsert(new Book(0, "Title", new Author(1, null), new Genre(1, null))).block();
+        assertThat(inserted).isNotNull();
+        assertThat(jdbcRepository.findById(inserted.getId())).contains(inserted);
+
+        //Новый основной жанр книги 2 был среди ее дополнительных и должен оттуда исчезнуть
+        var book = jdbcRepository.findById(2L).orElseThrow();
+        var extraGenre = book.getExtraGenres().get(0);
+        var updated = r2dbcRepository.upsert(new Book(2L, book.getTitle(), book.getAuthor(), extraGenre,
+                book.getVersion())).block();
+        assertThat(updated).isNotNull();
+        assertThat(updated.getExtraGenres()).hasSize(book.getExtraGenres().size() - 1).doesNotContain(extraGenre);
+        assertThat(jdbcRepository.findById(2L)).contains(updated);
+
+        //У книги 2 два дополнительных жанра, удаление должно убрать и их
+        r2dbcRepository.deleteById(2L).block();
+        assertThat(jdbcRepository.findById(2L)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_genres WHERE book_id = 2", Map.of(),
+                Long.class)).isZero();
+    }
+
+    @DisplayName("должен выдерживать параллельные запросы по id в обоих вариантах")
+    @Test
+    void shouldServeConcurrentLookups() throws Exception {
+        long jdbcStartedAt = System.nanoTime();
+        int jdbcFound = runJdbcLookups();
+        double jdbcSeconds = (System.nanoTime() - jdbcStartedAt) / 1e9;
+
+        long r2dbcStartedAt = System.nanoTime();
+        var r2dbcFound = Flux.range(0, LOOKUPS)
+                .flatMap(i -> r2dbcRepository.findById(randomBookId()), CONCURRENCY)
+                .count()
+                .block();
+        double r2dbcSeconds = (System.nanoTime() - r2dbcStartedAt) / 1e9;
+
+        assertThat(jdbcFound).isEqualTo(LOOKUPS);
+        assertThat(r2dbcFound).isEqualTo(LOOKUPS);
+        log.info("{} lookups, concurrency {}, pool {}: JDBC {} ops/sec on {} threads, "
+                        + "R2DBC {} ops/sec without a thread per request",
+                LOOKUPS, CONCURRENCY, POOL_SIZE, Math.round(LOOKUPS / jdbcSeconds), CONCURRENCY,
+                Math.round(LOOKUPS / r2dbcSeconds));
+    }
+
+    private int runJdbcLookups() throws Exception {
+        var executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                tasks.add(() -> {
+                    int found = 0;
+                    for (int j = 0; j < LOOKUPS / CONCURRENCY; j++) {
+                        found += jdbcRepository.findById(randomBookId()).isPresent() ? 1 : 0;
+                    }
+                    return found;
+                });
+            }
+            int found = 0;
+            for (var future : executor.invokeAll(tasks)) {
+                found += future.get();
+            }
+            return found;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long randomBookId() {
+        return ThreadLocalRandom.current().nextLong(1, BOOKS + 1);
+    }
+}
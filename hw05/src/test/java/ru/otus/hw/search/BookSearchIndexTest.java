@@ -0,0 +1,107 @@
+package ru.otus.hw.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Полнотекстовый индекс книг ")
+class BookSearchIndexTest {
+
+    private static final Genre GENRE = new Genre(1, "Genre_1");
+
+    private BookSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new BookSearchIndex();
+        searchIndex.rebuild(Stream.of(
+                new Book(1, "Гарри Поттер и философский камень", new Author(1, "Джоан Роулинг"), GENRE),
+                new Book(2, "Гарри Поттер и тайная комната", new Author(1, "Джоан Роулинг"), GENRE),
+                new Book(3, "Властелин колец", new Author(2, "Джон Рональд Руэл Толкин"), GENRE),
+                new Book(4, "Хоббит, или Туда и обратно", new Author(2, "Джон Рональд Руэл Толкин"), GENRE)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @DisplayName("должен ранжировать книги по числу и редкости совпавших слов")
+    @Test
+    void shouldRankBooksByMatchedTerms() {
+        var hits = searchIndex.search("поттер КАМЕНЬ", 0, 10);
+
+        assertThat(hits).extracting(SearchHit::bookId).containsExactly(1L, 2L);
+    }
+
+    @DisplayName("должен искать по имени автора и отдавать результаты постранично")
+    @Test
+    void shouldSearchByAuthorNameWithPagination() {
+        assertThat(searchIndex.search("толкин", 0, 1)).extracting(SearchHit::bookId).containsExactly(3L);
+        assertThat(searchIndex.search("толкин", 1, 1)).extracting(SearchHit::bookId).containsExactly(4L);
+        assertThat(searchIndex.search("толкин", 2, 1)).isEmpty();
+        assertThat(searchIndex.search("толкин", 0, Integer.MAX_VALUE - 1)).extracting(SearchHit::bookId)
+                .containsExactly(3L, 4L);
+    }
+
+    @DisplayName("должен отклонять отрицательное смещение, непозитивный лимит и переполнение offset + limit")
+    @Test
+    void shouldRejectInvalidPagination() {
+        assertThatThrownBy(() -> searchIndex.search("толкин", -1, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> searchIndex.search("толкин", 0, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> searchIndex.search("толкин", Integer.MAX_VALUE, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("должен обновлять индекс при изменении и удалении книги")
+    @Test
+    void shouldReindexUpdatedAndRemovedBooks() {
+        searchIndex.index(new Book(3, "Сильмариллион", new Author(2, "Джон Рональд Руэл Толкин"), GENRE));
+        searchIndex.remove(4);
+
+        assertThat(searchIndex.search("колец", 0, 10)).isEmpty();
+        assertThat(searchIndex.search("сильмариллион хоббит", 0, 10))
+                .extracting(SearchHit::bookId).containsExactly(3L);
+        assertThat(searchIndex.getStats().documents()).isEqualTo(3);
+    }
+
+    @DisplayName("должен менять индекс внутри транзакции только после коммита")
+    @Test
+    void shouldApplyChangesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        searchIndex.index(new Book(5, "Сильмариллион", new Author(2, "Джон Рональд Руэл Толкин"), GENRE));
+        searchIndex.remove(4);
+        assertThat(searchIndex.search("сильмариллион", 0, 10)).isEmpty();
+        assertThat(searchIndex.search("хоббит", 0, 10)).extracting(SearchHit::bookId).containsExactly(4L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(searchIndex.search("сильмариллион", 0, 10)).extracting(SearchHit::bookId).containsExactly(5L);
+        assertThat(searchIndex.search("хоббит", 0, 10)).isEmpty();
+    }
+
+    @DisplayName("не должен менять индекс после отката транзакции")
+    @Test
+    void shouldIgnoreChangesOfRolledBackTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        searchIndex.remove(4);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(searchIndex.search("хоббит", 0, 10)).extracting(SearchHit::bookId).containsExactly(4L);
+    }
+}
@@ -0,0 +1,143 @@
+package ru.otus.hw.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import ru.otus.hw.TestLibraryDatabase;
+import ru.otus.hw.cache.BookCacheInvalidator;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.config.CatalogProperties;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.repositories.JdbcAuthorRepository;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.search.BookSearchIndex;
+import ru.otus.hw.search.SearchHit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Сервис авторов ")
+class AuthorServiceImplTest {
+
+    // Книга X принадлежит автору MOD(X, 2) + 1: у автора 1 книги 2, 4, 6, 8, 10
+    private static final int BOOKS = 10;
+
+    private TestLibraryDatabase database;
+
+    private JdbcBookRepository bookRepository;
+
+    private BookSearchIndex bookSearchIndex;
+
+    private Cache booksCache;
+
+    private CatalogVersion catalogVersion;
+
+    private AuthorService authorService;
+
+    @BeforeEach
+    void setUp() {
+        database = TestLibraryDatabase.create("authors", 2);
+        database.seed(2, 2, BOOKS);
+        database.getJdbcTemplate().update("""
+                INSERT INTO book_genres (book_id, genre_id) SELECT id, MOD(id + 1, 2) + 1 FROM books
+                """, Map.of());
+
+        bookRepository = new JdbcBookRepository(database.getJdbcTemplate(), new JdbcBatchProperties());
+        var authorRepository = new JdbcAuthorRepository(database.getJdbcTemplate());
+        bookSearchIndex = new BookSearchIndex();
+        var cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.BOOKS_CACHE, Caffeine.newBuilder().build());
+        booksCache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        var bookCacheInvalidator = new BookCacheInvalidator(cacheManager);
+        catalogVersion = new CatalogVersion();
+        var catalogProperties = new CatalogProperties();
+        catalogProperties.setCascadeDeleteBatchSize(2);
+        var bookBatchDeleter = new BookBatchDeleter(bookSearchIndex, bookCacheInvalidator, catalogVersion,
+                catalogProperties);
+        authorService = new AuthorServiceImpl(authorRepository, bookRepository, bookSearchIndex,
+                bookCacheInvalidator, bookBatchDeleter, catalogVersion);
+
+        var books = bookRepository.findAll();
+        bookSearchIndex.rebuild(books.stream());
+        books.forEach(book -> booksCache.put(book.getId(), book));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @DisplayName("должен удалять книги автора пакетами вместе с их жанрами, кэшем и записями индекса")
+    @Test
+    void shouldDeleteAuthorBooksInBatches() {
+        List<Long> progress = new ArrayList<>();
+
+        long deleted = authorService.deleteById(1, progress::add);
+
+        assertThat(deleted).isEqualTo(5);
+        assertThat(progress).containsExactly(2L, 4L, 5L);
+        assertThat(authorService.findById(1)).isEmpty();
+        var remainingIds = LongStream.rangeClosed(1, BOOKS).filter(id -> id % 2 == 1).boxed().toList();
+        assertThat(bookRepository.findAll()).extracting(Book::getId).containsExactlyElementsOf(remainingIds);
+        assertThat(database.getJdbcTemplate().queryForList("SELECT book_id FROM book_genres ORDER BY book_id",
+                Map.of(), Long.class)).containsExactlyElementsOf(remainingIds);
+        LongStream.rangeClosed(1, BOOKS).forEach(id -> assertThat(booksCache.get(id) != null).isEqualTo(id % 2 == 1));
+        assertThat(bookSearchIndex.search("booktitle", 0, BOOKS)).extracting(SearchHit::bookId)
+                .containsExactlyInAnyOrderElementsOf(remainingIds);
+        assertThat(catalogVersion.current()).isEqualTo(4);
+    }
+
+    @DisplayName("должен убирать из индекса и кэша книги, добавленные автору после последнего пакета")
+    @Test
+    void shouldRemoveBooksAddedAfterLastBatch() {
+        long deleted = authorService.deleteById(1, progress -> {
+            if (progress == 5) {
+                insertIndexedBook(11, 1);
+            }
+        });
+
+        assertThat(deleted).isEqualTo(6);
+        assertThat(bookRepository.findAllByIds(List.of(11L))).isEmpty();
+        assertThat(booksCache.get(11L)).isNull();
+        assertThat(bookSearchIndex.search("latebook", 0, BOOKS)).isEmpty();
+    }
+
+    @DisplayName("должен переиндексировать и убирать из кэша книги переименованного автора")
+    @Test
+    void shouldReindexBooksOfRenamedAuthor() {
+        authorService.update(1, "Лев Толстой");
+
+        assertThat(bookSearchIndex.search("толстой", 0, BOOKS)).extracting(SearchHit::bookId)
+                .containsExactlyInAnyOrder(2L, 4L, 6L, 8L, 10L);
+        assertThat(booksCache.get(2L)).isNull();
+        assertThat(booksCache.get(1L)).isNotNull();
+    }
+
+    @DisplayName("не должен удалять несуществующего автора")
+    @Test
+    void shouldNotDeleteMissingAuthor() {
+        assertThatThrownBy(() -> authorService.deleteById(100, deleted -> {
+        })).isInstanceOf(EntityNotFoundException.class);
+        assertThat(bookRepository.count()).isEqualTo(BOOKS);
+    }
+
+    private void insertIndexedBook(long id, long authorId) {
+        database.getJdbcTemplate().update("""
+                INSERT INTO books (id, title, author_id, genre_id) VALUES (:id, 'LateBook', :author_id, 1)
+                """, Map.of("id", id, "author_id", authorId));
+        var book = bookRepository.findAllByIds(List.of(id)).get(0);
+        bookSearchIndex.index(book);
+        booksCache.put(id, book);
+    }
+}
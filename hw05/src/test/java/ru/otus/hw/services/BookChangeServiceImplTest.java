@@ -0,0 +1,79 @@
+package ru.otus.hw.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.otus.hw.TestLibraryDatabase;
+import ru.otus.hw.config.ChangeFeedProperties;
+import ru.otus.hw.models.BookChange;
+import ru.otus.hw.models.ChangeOperation;
+import ru.otus.hw.repositories.BookChangeRepository;
+import ru.otus.hw.repositories.JdbcBookChangeRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Чтение журнала изменений книг ")
+class BookChangeServiceImplTest {
+
+    private final BookChangeRepository repository = mock(BookChangeRepository.class);
+
+    private final BookChangeService service = new BookChangeServiceImpl(repository, new ChangeFeedProperties());
+
+    @DisplayName("должен останавливаться перед свежим пропуском seq и пропускать устаревший")
+    @Test
+    void shouldHoldBackChangesAfterRecentGap() {
+        var now = Instant.now();
+        var old = now.minus(1, ChronoUnit.MINUTES);
+
+        given(repository.findAllAfter(10, 100)).willReturn(List.of(change(11, now), change(12, now), change(14, now)));
+        assertThat(service.readAfter(10, 100)).extracting(BookChange::seq).containsExactly(11L, 12L);
+
+        given(repository.findAllAfter(12, 100)).willReturn(List.of(change(14, now)));
+        assertThat(service.readAfter(12, 100)).isEmpty();
+
+        given(repository.findAllAfter(12, 100)).willReturn(List.of(change(14, old), change(15, now)));
+        assertThat(service.readAfter(12, 100)).extracting(BookChange::seq).containsExactly(14L, 15L);
+    }
+
+    @DisplayName("должен отдать изменение медленной транзакции, закоммиченное после истечения пропуска")
+    @Test
+    void shouldDeliverSlowTransactionChangeCommittedAfterGapTimeout() throws Exception {
+        try (var database = TestLibraryDatabase.create("changes", 2)) {
+            database.seed(1, 1, 2);
+            var properties = new ChangeFeedProperties();
+            properties.setGapTimeoutMillis(0);
+            var changeService = new BookChangeServiceImpl(
+                    new JdbcBookChangeRepository(database.getJdbcTemplate()), properties);
+            long afterSeq = changeService.lastSeq();
+
+            try (var slowTransaction = database.getDataSource().getConnection();
+                 var statement = slowTransaction.createStatement()) {
+                slowTransaction.setAutoCommit(false);
+                //seq медленной транзакции выдан раньше, но виден только после коммита
+                statement.executeUpdate("UPDATE books SET title = 'Slow' WHERE id = 1");
+                database.getJdbcTemplate().update("UPDATE books SET title = 'Fast' WHERE id = 2", Map.of());
+
+                var beforeCommit = changeService.readAfter(afterSeq, 100);
+                assertThat(beforeCommit).extracting(BookChange::bookId).containsExactly(2L);
+                slowTransaction.commit();
+
+                var afterCommit = changeService.readAfter(beforeCommit.get(0).seq(), 100);
+                assertThat(afterCommit).extracting(BookChange::bookId, BookChange::operation)
+                        .containsExactly(tuple(1L, ChangeOperation.UPDATE));
+                assertThat(changeService.readAfter(afterSeq, 100)).extracting(BookChange::bookId)
+                        .containsExactly(2L, 1L);
+            }
+        }
+    }
+
+    private static BookChange change(long seq, Instant changedAt) {
+        return new BookChange(seq, 1, ChangeOperation.UPDATE, seq, changedAt);
+    }
+}
@@ -0,0 +1,169 @@
+package ru.otus.hw.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import ru.otus.hw.TestLibraryDatabase;
+import ru.otus.hw.cache.BookCacheInvalidator;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.config.OptimisticLockProperties;
+import ru.otus.hw.config.SoftDeleteProperties;
+import ru.otus.hw.exceptions.OptimisticLockException;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.repositories.JdbcAuthorRepository;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+import ru.otus.hw.search.BookSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@DisplayName("Нагрузочный тест конкурентного изменения книг ")
+class BookUpdateContentionTest {
+
+    private static final int THREADS = 16;
+
+    private static final int UPDATES_PER_THREAD = 200;
+
+    private static final String COUNTER_PREFIX = "Counter_";
+
+    @DisplayName("не должен терять изменения при конфликтах и должен показывать долю конфликтов")
+    @Test
+    void shouldNotLoseUpdatesUnderContention() throws Exception {
+        var report = new StringBuilder("books | max attempts | commits/sec | conflict rate | failed updates")
+                .append(System.lineSeparator());
+        for (int books : List.of(1, 16)) {
+            for (int maxAttempts : List.of(1, 100)) {
+                var meterRegistry = new SimpleMeterRegistry();
+                var properties = new OptimisticLockProperties();
+                properties.setMaxAttempts(maxAttempts);
+                var retry = new OptimisticLockRetry(properties, meterRegistry);
+
+                try (var database = TestLibraryDatabase.create("contention", THREADS)) {
+                    database.seed(1, 1, books);
+                    database.getJdbcTemplate().update("UPDATE books SET title = :title",
+                            Map.of("title", COUNTER_PREFIX + 0));
+                    var repository = new JdbcBookRepository(database.getJdbcTemplate(), new JdbcBatchProperties());
+
+                    long startedAt = System.nanoTime();
+                    int commits = runIncrements(repository, retry, books);
+                    double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+                    //Каждое успешное изменение увеличило ровно один счетчик и одну версию
+                    var savedBooks = repository.findAll();
+                    assertThat(savedBooks.stream().mapToLong(BookUpdateContentionTest::counterOf).sum())
+                            .isEqualTo(commits);
+                    assertThat(savedBooks.stream().mapToLong(Book::getVersion).sum()).isEqualTo(commits);
+
+                    double conflicts = meterRegistry.get(OptimisticLockRetry.CONFLICTS_COUNTER).counter().count();
+                    int failed = THREADS * UPDATES_PER_THREAD - commits;
+                    if (maxAttempts == 100) {
+                        assertThat(failed).isZero();
+                    }
+                    report.append("%5d | %12d | %11.0f | %13.3f | %d".formatted(books, maxAttempts,
+                                    commits / seconds, conflicts / (commits + conflicts), failed))
+                            .append(System.lineSeparator());
+                }
+            }
+        }
+        log.info("Book update contention:{}{}", System.lineSeparator(), report);
+    }
+
+    @DisplayName("не должен терять изменения, сделанные через BookService, и должен отклонять устаревшую версию")
+    @Test
+    void shouldNotLoseUpdatesMadeThroughBookService() throws Exception {
+        var properties = new OptimisticLockProperties();
+        properties.setMaxAttempts(1000);
+        var retry = new OptimisticLockRetry(properties, new SimpleMeterRegistry());
+
+        try (var database = TestLibraryDatabase.create("service_contention", THREADS)) {
+            database.seed(1, 1, 1);
+            var jdbcTemplate = database.getJdbcTemplate();
+            jdbcTemplate.update("UPDATE books SET title = :title", Map.of("title", COUNTER_PREFIX + 0));
+            var bookRepository = new JdbcBookRepository(jdbcTemplate, new JdbcBatchProperties());
+            var bookCacheInvalidator = new BookCacheInvalidator(new CaffeineCacheManager(CacheConfig.BOOKS_CACHE));
+            var bookService = new BookServiceImpl(new JdbcAuthorRepository(jdbcTemplate),
+                    new JdbcGenreRepository(jdbcTemplate), bookRepository, new BookSearchIndex(), new CatalogVersion(),
+                    bookCacheInvalidator, retry, new SoftDeleteProperties());
+
+            var executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    tasks.add(() -> {
+                        for (int j = 0; j < UPDATES_PER_THREAD; j++) {
+                            bookService.update(1, book -> {
+                                book.setTitle(COUNTER_PREFIX + (counterOf(book) + 1));
+                                return book;
+                            });
+                        }
+                        return null;
+                    });
+                }
+                for (var future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            var book = bookRepository.findById(1L).orElseThrow();
+            assertThat(counterOf(book)).isEqualTo(THREADS * UPDATES_PER_THREAD);
+            assertThat(book.getVersion()).isEqualTo(THREADS * UPDATES_PER_THREAD);
+            //Изменение с версией, прочитанной до чужой записи, отклоняется, а не затирает ее
+            assertThatThrownBy(() -> bookService.update(1, book.getVersion() - 1, "Stale", 1, 1))
+                    .isInstanceOf(OptimisticLockException.class);
+            assertThat(bookRepository.findById(1L)).get().extracting(Book::getTitle).isEqualTo(book.getTitle());
+        }
+    }
+
+    //Чтение-изменение-запись без блокировок: счетчик в названии книги увеличивается на 1
+    private static int runIncrements(JdbcBookRepository repository, OptimisticLockRetry retry, int books)
+            throws Exception {
+        var executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                tasks.add(() -> {
+                    int commits = 0;
+                    for (int j = 0; j < UPDATES_PER_THREAD; j++) {
+                        long id = ThreadLocalRandom.current().nextLong(1, books + 1);
+                        try {
+                            retry.execute(() -> {
+                                var book = repository.findById(id).orElseThrow();
+                                book.setTitle(COUNTER_PREFIX + (counterOf(book) + 1));
+                                return repository.save(book);
+                            });
+                            commits++;
+                        } catch (OptimisticLockException e) {
+                            //Попытки исчерпаны, изменение не применено
+                        }
+                    }
+                    return commits;
+                });
+            }
+            int commits = 0;
+            for (var future : executor.invokeAll(tasks)) {
+                commits += future.get();
+            }
+            return commits;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long counterOf(Book book) {
+        return Long.parseLong(book.getTitle().substring(COUNTER_PREFIX.length()));
+    }
+}
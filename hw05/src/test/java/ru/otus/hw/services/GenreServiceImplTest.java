@@ -0,0 +1,137 @@
+package ru.otus.hw.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import ru.otus.hw.TestLibraryDatabase;
+import ru.otus.hw.cache.BookCacheInvalidator;
+import ru.otus.hw.config.CacheConfig;
+import ru.otus.hw.config.CatalogProperties;
+import ru.otus.hw.config.JdbcBatchProperties;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+import ru.otus.hw.search.BookSearchIndex;
+import ru.otus.hw.search.SearchHit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Сервис жанров ")
+class GenreServiceImplTest {
+
+    // Книга X относится к жанру MOD(X, 3) + 1: у жанра 1 книги 3, 6, 9
+    private static final int BOOKS = 10;
+
+    private TestLibraryDatabase database;
+
+    private JdbcBookRepository bookRepository;
+
+    private BookSearchIndex bookSearchIndex;
+
+    private Cache booksCache;
+
+    private GenreService genreService;
+
+    @BeforeEach
+    void setUp() {
+        database = TestLibraryDatabase.create("genres", 2);
+        database.seed(1, 3, BOOKS);
+        //Дополнительный жанр книги X - следующий после основного, у книг 2, 5, 8 это жанр 1
+        database.getJdbcTemplate().update("""
+                INSERT INTO book_genres (book_id, genre_id) SELECT id, MOD(id + 1, 3) + 1 FROM books
+                """, Map.of());
+
+        bookRepository = new JdbcBookRepository(database.getJdbcTemplate(), new JdbcBatchProperties());
+        var genreRepository = new JdbcGenreRepository(database.getJdbcTemplate());
+        bookSearchIndex = new BookSearchIndex();
+        var cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.BOOKS_CACHE, Caffeine.newBuilder().build());
+        booksCache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        var bookCacheInvalidator = new BookCacheInvalidator(cacheManager);
+        var catalogVersion = new CatalogVersion();
+        var catalogProperties = new CatalogProperties();
+        catalogProperties.setCascadeDeleteBatchSize(2);
+        var bookBatchDeleter = new BookBatchDeleter(bookSearchIndex, bookCacheInvalidator, catalogVersion,
+                catalogProperties);
+        genreService = new GenreServiceImpl(genreRepository, bookRepository, bookSearchIndex, bookCacheInvalidator,
+                bookBatchDeleter, catalogVersion);
+
+        var books = bookRepository.findAll();
+        bookSearchIndex.rebuild(books.stream());
+        books.forEach(book -> booksCache.put(book.getId(), book));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @DisplayName("должен удалять книги жанра пакетами и убирать жанр из дополнительных жанров остальных книг")
+    @Test
+    void shouldDeleteGenreBooksInBatches() {
+        List<Long> progress = new ArrayList<>();
+
+        long deleted = genreService.deleteById(1, progress::add);
+
+        assertThat(deleted).isEqualTo(3);
+        assertThat(progress).containsExactly(2L, 3L);
+        assertThat(genreService.findById(1)).isEmpty();
+        var remainingIds = LongStream.rangeClosed(1, BOOKS).filter(id -> id % 3 != 0).boxed().toList();
+        var remainingBooks = bookRepository.findAll();
+        assertThat(remainingBooks).extracting(Book::getId).containsExactlyElementsOf(remainingIds);
+        assertThat(remainingBooks).flatExtracting(Book::getExtraGenres).extracting(Genre::getId)
+                .doesNotContain(1L);
+        assertThat(database.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM book_genres", Map.of(),
+                Long.class)).isEqualTo(remainingIds.size() - 3);
+        //В кэше не остается ни книг жанра, ни книг, у которых он был дополнительным
+        LongStream.rangeClosed(1, BOOKS).forEach(id -> assertThat(booksCache.get(id) != null)
+                .isEqualTo(id % 3 == 1));
+        assertThat(bookSearchIndex.search("booktitle", 0, BOOKS)).extracting(SearchHit::bookId)
+                .containsExactlyInAnyOrderElementsOf(remainingIds);
+    }
+
+    @DisplayName("должен убирать из индекса и кэша книги, добавленные в жанр после последнего пакета")
+    @Test
+    void shouldRemoveBooksAddedAfterLastBatch() {
+        long deleted = genreService.deleteById(1, progress -> {
+            if (progress == 3) {
+                insertIndexedBook(11, 1);
+            }
+        });
+
+        assertThat(deleted).isEqualTo(4);
+        assertThat(bookRepository.findAllByIds(List.of(11L))).isEmpty();
+        assertThat(booksCache.get(11L)).isNull();
+        assertThat(bookSearchIndex.search("latebook", 0, BOOKS)).isEmpty();
+    }
+
+    @DisplayName("должен убирать из кэша книги переименованного жанра, включая дополнительный")
+    @Test
+    void shouldEvictBooksOfRenamedGenre() {
+        genreService.update(1, "Роман");
+
+        LongStream.rangeClosed(1, BOOKS).forEach(id -> assertThat(booksCache.get(id) != null)
+                .isEqualTo(id % 3 == 1));
+        assertThat(bookRepository.findById(2L)).get()
+                .extracting(Book::getExtraGenres).isEqualTo(List.of(new Genre(1, "Роман")));
+    }
+
+    private void insertIndexedBook(long id, long genreId) {
+        database.getJdbcTemplate().update("""
+                INSERT INTO books (id, title, author_id, genre_id) VALUES (:id, 'LateBook', 1, :genre_id)
+                """, Map.of("id", id, "genre_id", genreId));
+        var book = bookRepository.findAllByIds(List.of(id)).get(0);
+        bookSearchIndex.index(book);
+        booksCache.put(id, book);
+    }
+}